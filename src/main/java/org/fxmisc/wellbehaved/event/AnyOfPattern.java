@@ -0,0 +1,82 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+
+/**
+ * Implementation of {@link EventPattern#anyOf(EventPattern[])}. The union of the sub-patterns' event types is
+ * computed once, and for each concrete event type it meets, the pattern remembers which sub-patterns declare
+ * that type or one of its super types, so that an event is only tried against sub-patterns that can match it.
+ * Sub-patterns that declare no event types are tried against every event.
+ */
+final class AnyOfPattern<T extends Event, U extends T> implements EventPattern<T, U> {
+
+    private final List<EventPattern<T, ? extends U>> patterns;
+    private final List<Set<EventType<? extends U>>> typesOfPatterns = new ArrayList<>();
+    private final Set<EventType<? extends U>> eventTypes;
+
+    // sub-patterns to try, by the concrete type of the event
+    private final Map<EventType<?>, List<EventPattern<T, ? extends U>>> candidates = new ConcurrentHashMap<>();
+
+    AnyOfPattern(List<EventPattern<T, ? extends U>> patterns) {
+        this.patterns = new ArrayList<>(patterns);
+        Set<EventType<? extends U>> types = new LinkedHashSet<>();
+        for(EventPattern<T, ? extends U> p: patterns) {
+            Set<EventType<? extends U>> ts = Collections.unmodifiableSet(new LinkedHashSet<>(p.getEventTypes()));
+            typesOfPatterns.add(ts);
+            types.addAll(ts);
+        }
+        this.eventTypes = Collections.unmodifiableSet(types);
+    }
+
+    @Override
+    public Optional<? extends U> match(T event) {
+        List<EventPattern<T, ? extends U>> ps = candidates.get(event.getEventType());
+        if(ps == null) {
+            ps = candidates.computeIfAbsent(event.getEventType(), this::candidatesFor);
+        }
+        for(int i = 0; i < ps.size(); ++i) {
+            Optional<? extends U> match = ps.get(i).match(event);
+            if(match.isPresent()) {
+                return match;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private List<EventPattern<T, ? extends U>> candidatesFor(EventType<?> type) {
+        List<EventPattern<T, ? extends U>> res = new ArrayList<>();
+        for(int i = 0; i < patterns.size(); ++i) {
+            if(declares(typesOfPatterns.get(i), type)) {
+                res.add(patterns.get(i));
+            }
+        }
+        return res;
+    }
+
+    private static boolean declares(Set<? extends EventType<?>> types, EventType<?> type) {
+        if(types.isEmpty()) {
+            return true; // nothing is known about the events it matches
+        }
+        for(EventType<?> t = type; t != null; t = t.getSuperType()) {
+            if(types.contains(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<EventType<? extends U>> getEventTypes() {
+        return eventTypes;
+    }
+}
@@ -0,0 +1,100 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.BitSet;
+
+/**
+ * An immutable set of characters made of one or more ranges (e.g. {@code CharRange.of('a', 'z').or(CharRange.of('A', 'Z'))}),
+ * backed by a bit set, for {@link EventPattern#keyTyped(CharRange, javafx.scene.input.KeyCombination.Modifier...)}.
+ */
+public final class CharRange {
+
+    public static final CharRange DIGITS = of('0', '9');
+    public static final CharRange ASCII_LETTERS = of('a', 'z').or(of('A', 'Z'));
+    /** The printable ASCII characters, from space to tilde */
+    public static final CharRange ASCII_PRINTABLE = of(' ', '~');
+
+    /**
+     * Returns the range of characters from {@code first} to {@code last}, both included.
+     */
+    public static CharRange of(char first, char last) {
+        if(first > last) {
+            throw new IllegalArgumentException("Empty range: " + first + ".." + last);
+        }
+        BitSet chars = new BitSet(last + 1);
+        chars.set(first, last + 1);
+        return new CharRange(chars);
+    }
+
+    public static CharRange single(char c) {
+        return of(c, c);
+    }
+
+    private final BitSet chars;
+
+    private CharRange(BitSet chars) {
+        this.chars = chars;
+    }
+
+    /**
+     * Returns the union of this range and the given one.
+     */
+    public CharRange or(CharRange other) {
+        BitSet union = (BitSet) chars.clone();
+        union.or(other.chars);
+        return new CharRange(union);
+    }
+
+    public boolean contains(char c) {
+        return chars.get(c);
+    }
+
+    /**
+     * Returns true if the given string consists of a single character of this range.
+     */
+    public boolean containsCharacter(String s) {
+        return s.length() == 1 && chars.get(s.charAt(0));
+    }
+
+    /**
+     * Returns the number of characters in this range.
+     */
+    public int size() {
+        return chars.cardinality();
+    }
+
+    /**
+     * Returns the characters of this range, in ascending order.
+     */
+    public char[] toCharArray() {
+        char[] res = new char[chars.cardinality()];
+        int i = 0;
+        for(int c = chars.nextSetBit(0); c >= 0; c = chars.nextSetBit(c + 1)) {
+            res[i++] = (char) c;
+        }
+        return res;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CharRange && chars.equals(((CharRange) other).chars);
+    }
+
+    @Override
+    public int hashCode() {
+        return chars.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for(int first = chars.nextSetBit(0); first >= 0; ) {
+            int end = chars.nextClearBit(first);
+            sb.append((char) first);
+            if(end - 1 > first) {
+                sb.append('-').append((char) (end - 1));
+            }
+            first = chars.nextSetBit(end);
+        }
+        return sb.append(']').toString();
+    }
+}
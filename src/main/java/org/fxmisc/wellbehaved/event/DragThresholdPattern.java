@@ -0,0 +1,66 @@
+package org.fxmisc.wellbehaved.event;
+
+import static javafx.scene.input.MouseEvent.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+
+/**
+ * Recognizes a drag with a mouse button once the mouse has moved farther than a threshold from where the button
+ * was pressed; see {@link EventPattern#mouseDragged(MouseButton, double)}.
+ */
+final class DragThresholdPattern extends GesturePattern {
+    private final double threshold;
+    private final Set<EventType<? extends MouseEvent>> eventTypes;
+
+    DragThresholdPattern(MouseButton button, double threshold) {
+        // the gesture type is never fired: the drags themselves are matched
+        super(button, MOUSE_DRAGGED, new HashSet<>(Arrays.asList(MOUSE_PRESSED, MOUSE_DRAGGED, MOUSE_RELEASED)));
+        this.threshold = threshold;
+        this.eventTypes = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(MOUSE_DRAGGED, gestureType)));
+    }
+
+    @Override
+    void update(State s, MouseEvent e) {
+        if(e.getEventType() == MOUSE_DRAGGED) {
+            if(s.pressed && !s.active && s.movedBeyond(e, threshold)) {
+                s.active = true;
+            }
+        } else if(e.getButton() == button) {
+            // pressed or released
+            s.pressed = e.getEventType() == MOUSE_PRESSED;
+            s.active = false;
+            s.pressX = e.getScreenX();
+            s.pressY = e.getScreenY();
+        }
+    }
+
+    @Override
+    public Optional<MouseEvent> match(Event event) {
+        if(event.getEventType() == MOUSE_DRAGGED) {
+            State s = getState(event.getSource());
+            if(s != null && s.active) {
+                return Optional.of((MouseEvent) event);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Set<EventType<? extends MouseEvent>> getEventTypes() {
+        return eventTypes;
+    }
+
+    @Override
+    public String toString() {
+        return MOUSE_DRAGGED.getName() + " " + button + " beyond " + threshold;
+    }
+}
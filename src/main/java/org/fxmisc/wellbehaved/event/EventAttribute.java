@@ -0,0 +1,99 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+import javafx.event.Event;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+
+/**
+ * An attribute of an event (e.g. the code of a key event) that the built-in {@link EventPattern}s test against an
+ * expected value. Built-in patterns expose that test via {@link EventPattern#getAttributeTest()}, so that the
+ * handlers of an event type can be compiled into a decision tree that reads each attribute once per event
+ * instead of having each pattern read and compare it in turn.
+ *
+ * @param <E> type of the events that have this attribute
+ * @param <A> type of the attribute
+ */
+public final class EventAttribute<E extends Event, A> {
+
+    public static final EventAttribute<KeyEvent, KeyCode> KEY_CODE =
+            new EventAttribute<>("code", KeyEvent.class, KeyEvent::getCode);
+
+    public static final EventAttribute<KeyEvent, String> CHARACTER =
+            new EventAttribute<>("character", KeyEvent.class, KeyEvent::getCharacter);
+
+    public static final EventAttribute<MouseEvent, MouseButton> MOUSE_BUTTON =
+            new EventAttribute<>("button", MouseEvent.class, MouseEvent::getButton);
+
+    /**
+     * The test of an {@link EventAttribute} against a set of expected values: an event can only match a pattern
+     * with this test if its attribute is one of the values (though the pattern may impose further conditions).
+     */
+    public static final class Test<A> {
+        private final EventAttribute<?, A> attribute;
+        private final Set<A> values;
+
+        private Test(EventAttribute<?, A> attribute, Set<A> values) {
+            this.attribute = attribute;
+            this.values = values;
+        }
+
+        public EventAttribute<?, A> getAttribute() {
+            return attribute;
+        }
+
+        public Set<A> getValues() {
+            return values;
+        }
+
+        @Override
+        public String toString() {
+            return values.size() == 1
+                    ? attribute + " == " + values.iterator().next()
+                    : attribute + " in " + values;
+        }
+    }
+
+    private final String name;
+    private final Class<E> eventClass;
+    private final Function<? super E, ? extends A> getter;
+
+    private EventAttribute(String name, Class<E> eventClass, Function<? super E, ? extends A> getter) {
+        this.name = name;
+        this.eventClass = eventClass;
+        this.getter = getter;
+    }
+
+    /**
+     * Returns the value of this attribute for the given event, or {@code null} if the event does not have it.
+     */
+    public A get(Event event) {
+        return eventClass.isInstance(event) ? getter.apply(eventClass.cast(event)) : null;
+    }
+
+    /**
+     * Returns the test of this attribute against the given value.
+     */
+    public Test<A> is(A value) {
+        return new Test<>(this, Collections.singleton(value));
+    }
+
+    /**
+     * Returns the test of this attribute against the given values.
+     */
+    public Test<A> isAnyOf(Collection<? extends A> values) {
+        return new Test<>(this, Collections.unmodifiableSet(new LinkedHashSet<>(values)));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,14 +1,15 @@
 package org.fxmisc.wellbehaved.event;
 
 import static javafx.scene.input.KeyCombination.ALT_ANY;
+import static javafx.scene.input.KeyCombination.CONTROL_ANY;
 import static javafx.scene.input.KeyCombination.META_ANY;
 import static javafx.scene.input.KeyCombination.SHIFT_ANY;
 import static javafx.scene.input.KeyCombination.SHORTCUT_ANY;
 import static javafx.scene.input.KeyEvent.*;
 import static javafx.scene.input.MouseEvent.*;
 
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -22,6 +23,7 @@ import javafx.scene.input.KeyCombination;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
+import javafx.util.Duration;
 
 /**
  * Helper class for pattern-matching one or more {@link EventType}s (e.g. the "case" line in a powerful switch
@@ -72,23 +74,21 @@ public interface EventPattern<T extends Event, U extends T> {
     Optional<? extends U> match(T event);
     Set<EventType<? extends U>> getEventTypes();
 
+    /**
+     * Returns the test of an event attribute that every event matched by this pattern passes, if this pattern
+     * has one (the built-in patterns that test a key code, character or mouse button do). Used to compile the
+     * handlers of an event type into a decision tree; custom patterns do not need to override it.
+     */
+    default Optional<EventAttribute.Test<?>> getAttributeTest() {
+        return Optional.empty();
+    }
+
     /**
      * Returns an EventPattern that matches the given event type only when this event pattern matches it
      * and the {@code next} EventPattern matches it.
      */
     default <V extends U> EventPattern<T, V> andThen(EventPattern<? super U, V> next) {
-        return new EventPattern<T, V>() {
-
-            @Override
-            public Optional<? extends V> match(T event) {
-                return EventPattern.this.match(event).flatMap(next::match);
-            }
-
-            @Override
-            public Set<EventType<? extends V>> getEventTypes() {
-                return next.getEventTypes();
-            }
-        };
+        return FusedPattern.andThen(this, next);
     }
 
     /**
@@ -96,19 +96,7 @@ public interface EventPattern<T extends Event, U extends T> {
      * and the event type passed the given {@code condition}
      */
     default EventPattern<T, U> onlyIf(Predicate<? super U> condition) {
-        return new EventPattern<T, U>() {
-
-            @Override
-            public Optional<U> match(T event) {
-                return EventPattern.this.match(event).map(u -> condition.test(u) ? u : null);
-            }
-
-            @Override
-            public Set<EventType<? extends U>> getEventTypes() {
-                return EventPattern.this.getEventTypes();
-            }
-
-        };
+        return FusedPattern.onlyIf(this, condition);
     }
 
     /**
@@ -122,58 +110,22 @@ public interface EventPattern<T extends Event, U extends T> {
     /**
      * Returns an EventPattern that matches the given event type when any of the given EventPatterns match the
      * given event type; useful when one wants to specify the same behavior for a variety of events (i.e. the
-     * "copy" action when a user press "CTRL+C" on Windows or "COMMAND+C" on Mac).
+     * "copy" action when a user press "CTRL+C" on Windows or "COMMAND+C" on Mac). An event is only tried against
+     * the patterns whose {@link #getEventTypes() event types} include the event's type or one of its super types
+     * (as if each pattern was installed on its own, since handlers are only installed for these types), and
+     * against the patterns that declare no event types.
      */
     @SafeVarargs
     static <T extends Event, U extends T> EventPattern<T, U> anyOf(EventPattern<T, ? extends U>... events) {
-        return new EventPattern<T, U>() {
-
-            @Override
-            public Optional<? extends U> match(T event) {
-                for (EventPattern<T, ? extends U> evt : events) {
-                    Optional<? extends U> match = evt.match(event);
-                    if(match.isPresent()) {
-                        return match;
-                    }
-                }
-                return Optional.empty();
-            }
-
-            @Override
-            public Set<EventType<? extends U>> getEventTypes() {
-                HashSet<EventType<? extends U>> ret = new HashSet<>();
-                for (EventPattern<T, ? extends U> evt : events) {
-                    ret.addAll(evt.getEventTypes());
-                }
-                return ret;
-            }
-
-        };
+        List<EventPattern<T, ? extends U>> patterns = new ArrayList<>(events.length);
+        for(EventPattern<T, ? extends U> p: events) {
+            patterns.add(p);
+        }
+        return new AnyOfPattern<>(patterns);
     }
 
     static <T extends Event> EventPattern<Event, T> eventType(EventType<? extends T> eventType) {
-        return new EventPattern<Event, T>() {
-
-            @Override
-            public Optional<T> match(Event event) {
-                EventType<? extends Event> actualType = event.getEventType();
-                do {
-                    if(actualType.equals(eventType)) {
-                        @SuppressWarnings("unchecked")
-                        T res = (T) event;
-                        return Optional.of(res);
-                    }
-                    actualType = actualType.getSuperType();
-                } while(actualType != null);
-                return Optional.empty();
-            }
-
-            @Override
-            public Set<EventType<? extends T>> getEventTypes() {
-                return Collections.singleton(eventType);
-            }
-
-        };
+        return new EventTypePattern<>(eventType);
     }
 
     static EventPattern<Event, KeyEvent> keyPressed() {
@@ -181,17 +133,30 @@ public interface EventPattern<T extends Event, U extends T> {
     }
 
     static EventPattern<Event, KeyEvent> keyPressed(KeyCombination combination) {
-        return keyPressed().onlyIf(combination::match);
+        return combination instanceof KeyCodeCombination
+                ? KeyStroke.of(KEY_PRESSED, (KeyCodeCombination) combination)
+                : combination instanceof KeyCharacterCombination
+                ? new KeyCharacterPattern(KEY_PRESSED, (KeyCharacterCombination) combination)
+                : new KeyCombinationPattern(KEY_PRESSED, combination);
     }
 
     static EventPattern<Event, KeyEvent> keyPressed(KeyCode code, KeyCombination.Modifier... modifiers) {
-        return keyPressed(new KeyCodeCombination(code, modifiers));
+        return KeyStroke.of(KEY_PRESSED, code, modifiers);
     }
 
     static EventPattern<Event, KeyEvent> keyPressed(Predicate<KeyCode> keyTest, KeyCombination.Modifier... modifiers) {
         return keyPressed(new GenericKeyCombination(e -> keyTest.test(e.getCode()), modifiers));
     }
 
+    /**
+     * Matches key pressed events of any of the given key codes (e.g. all arrow keys); unlike
+     * {@link #keyPressed(Predicate, KeyCombination.Modifier...)}, the codes are tested against a bit set and
+     * handlers of such patterns are indexed by key code.
+     */
+    static EventPattern<Event, KeyEvent> keyPressed(Set<KeyCode> codes, KeyCombination.Modifier... modifiers) {
+        return new KeyCodeSetPattern(KEY_PRESSED, codes, modifiers);
+    }
+
     static EventPattern<Event, KeyEvent> keyPressed(String character, KeyCombination.Modifier... modifiers) {
         return keyPressed(new KeyCharacterCombination(character, modifiers));
     }
@@ -203,8 +168,7 @@ public interface EventPattern<T extends Event, U extends T> {
      * {@link InputMap#sequence(InputMap[])}, the second EventPattern will never run.
      */
     static EventPattern<Event, KeyEvent> keyPressedNoMod(String character) {
-        KeyCharacterCombination combination = new KeyCharacterCombination(character, ALL_MODIFIERS_AS_ANY);
-        return keyPressed().onlyIf(combination::match);
+        return keyPressed(new KeyCharacterCombination(character, ALL_MODIFIERS_AS_ANY));
     }
 
     static EventPattern<Event, KeyEvent> keyReleased() {
@@ -212,17 +176,30 @@ public interface EventPattern<T extends Event, U extends T> {
     }
 
     static EventPattern<Event, KeyEvent> keyReleased(KeyCombination combination) {
-        return keyReleased().onlyIf(combination::match);
+        return combination instanceof KeyCodeCombination
+                ? KeyStroke.of(KEY_RELEASED, (KeyCodeCombination) combination)
+                : combination instanceof KeyCharacterCombination
+                ? new KeyCharacterPattern(KEY_RELEASED, (KeyCharacterCombination) combination)
+                : new KeyCombinationPattern(KEY_RELEASED, combination);
     }
 
     static EventPattern<Event, KeyEvent> keyReleased(KeyCode code, KeyCombination.Modifier... modifiers) {
-        return keyReleased(new KeyCodeCombination(code, modifiers));
+        return KeyStroke.of(KEY_RELEASED, code, modifiers);
     }
 
     static EventPattern<Event, KeyEvent> keyReleased(Predicate<KeyCode> keyTest, KeyCombination.Modifier... modifiers) {
         return keyReleased(new GenericKeyCombination(e -> keyTest.test(e.getCode()), modifiers));
     }
 
+    /**
+     * Matches key released events of any of the given key codes (e.g. all arrow keys); unlike
+     * {@link #keyReleased(Predicate, KeyCombination.Modifier...)}, the codes are tested against a bit set and
+     * handlers of such patterns are indexed by key code.
+     */
+    static EventPattern<Event, KeyEvent> keyReleased(Set<KeyCode> codes, KeyCombination.Modifier... modifiers) {
+        return new KeyCodeSetPattern(KEY_RELEASED, codes, modifiers);
+    }
+
     static EventPattern<Event, KeyEvent> keyReleased(String character, KeyCombination.Modifier... modifiers) {
         return keyReleased(new KeyCharacterCombination(character, modifiers));
     }
@@ -234,8 +211,7 @@ public interface EventPattern<T extends Event, U extends T> {
      * {@link InputMap#sequence(InputMap[])}, the second EventPattern will never run.
      */
     static EventPattern<Event, KeyEvent> keyReleasedNoMod(String character) {
-        KeyCharacterCombination combination = new KeyCharacterCombination(character, ALL_MODIFIERS_AS_ANY);
-        return keyReleased().onlyIf(combination::match);
+        return keyReleased(new KeyCharacterCombination(character, ALL_MODIFIERS_AS_ANY));
     }
 
     static EventPattern<Event, KeyEvent> keyTyped() {
@@ -247,8 +223,17 @@ public interface EventPattern<T extends Event, U extends T> {
         return keyTyped().onlyIf(combination::match);
     }
 
+    /**
+     * Matches key typed events of a character in the given range (e.g. {@link CharRange#DIGITS}); unlike
+     * {@link #keyTyped(Predicate, KeyCombination.Modifier...)}, the character is tested against a bit set and
+     * handlers of such patterns are indexed by character (for ranges of up to 256 characters).
+     */
+    static EventPattern<Event, KeyEvent> keyTyped(CharRange range, KeyCombination.Modifier... modifiers) {
+        return new KeyTypedRangePattern(range, modifiers);
+    }
+
     static EventPattern<Event, KeyEvent> keyTyped(String character, KeyCombination.Modifier... modifiers) {
-        return keyTyped(character::equals, modifiers);
+        return new KeyTypedPattern(character, modifiers);
     }
 
     /**
@@ -258,7 +243,7 @@ public interface EventPattern<T extends Event, U extends T> {
      * {@link InputMap#sequence(InputMap[])}, the second EventPattern will never run.
      */
     static EventPattern<Event, KeyEvent> keyTypedNoMod(String character) {
-        return keyTyped().onlyIf(e -> e.getCharacter().equals(character));
+        return new KeyTypedPattern(character, SHORTCUT_ANY, SHIFT_ANY, CONTROL_ANY, ALT_ANY, META_ANY);
     }
 
     static EventPattern<Event, MouseEvent> mouseClicked() {
@@ -266,7 +251,7 @@ public interface EventPattern<T extends Event, U extends T> {
     }
 
     static EventPattern<Event, MouseEvent> mouseClicked(MouseButton button) {
-        return mouseClicked().onlyIf(e -> e.getButton() == button);
+        return new MouseButtonPattern(MOUSE_CLICKED, button);
     }
 
     static EventPattern<Event, MouseEvent> mousePressed() {
@@ -274,7 +259,7 @@ public interface EventPattern<T extends Event, U extends T> {
     }
 
     static EventPattern<Event, MouseEvent> mousePressed(MouseButton button) {
-        return mousePressed().onlyIf(e -> e.getButton() == button);
+        return new MouseButtonPattern(MOUSE_PRESSED, button);
     }
 
     static EventPattern<Event, MouseEvent> mouseReleased() {
@@ -282,7 +267,7 @@ public interface EventPattern<T extends Event, U extends T> {
     }
 
     static EventPattern<Event, MouseEvent> mouseReleased(MouseButton button) {
-        return mouseReleased().onlyIf(e -> e.getButton() == button);
+        return new MouseButtonPattern(MOUSE_RELEASED, button);
     }
 
     static EventPattern<Event, MouseEvent> mouseMoved() {
@@ -312,4 +297,109 @@ public interface EventPattern<T extends Event, U extends T> {
     static EventPattern<Event, MouseEvent> mouseExitedTarget() {
         return eventType(MOUSE_EXITED_TARGET);
     }
+
+    /**
+     * Matches the second click of a double click with the given button.
+     */
+    static EventPattern<Event, MouseEvent> mouseDoubleClicked(MouseButton button) {
+        return mouseClicked(button).onlyIf(e -> e.getClickCount() == 2);
+    }
+
+    /**
+     * Matches a click with the given button that is not followed by another click within the
+     * {@link MouseGestures#DEFAULT_MULTI_CLICK_INTERVAL}; see {@link #mouseSingleClicked(MouseButton, Duration)}.
+     */
+    static EventPattern<Event, MouseEvent> mouseSingleClicked(MouseButton button) {
+        return mouseSingleClicked(button, MouseGestures.DEFAULT_MULTI_CLICK_INTERVAL);
+    }
+
+    /**
+     * Matches a click with the given button that is not followed by another click within the given interval, so
+     * that it can be bound together with {@link #mouseDoubleClicked(MouseButton)} without running both bindings
+     * on a double click. The match is a {@link MouseGestures#MOUSE_SINGLE_CLICKED} copy of the click, fired on
+     * the node once the interval has elapsed.
+     *
+     * <p>This pattern is stateful: it keeps the state of each node whose input map uses it, updated by event filters
+     * that {@link Nodes} adds when it installs the input map (and removes along with it). The filters see the
+     * mouse events of the node also when earlier handlers consume them, or when another alternative of
+     * {@link #anyOf(EventPattern[])} matches them; without {@code Nodes}, the pattern never matches.
+     * All gesture patterns share a single pulse-driven timer.</p>
+     */
+    static EventPattern<Event, MouseEvent> mouseSingleClicked(MouseButton button, Duration multiClickInterval) {
+        return new SingleClickPattern(button, multiClickInterval);
+    }
+
+    /**
+     * Matches a press of the given button that is held for the given duration without moving the mouse. The
+     * match is a {@link MouseGestures#MOUSE_LONG_PRESSED} copy of the press, fired on the node once the duration
+     * has elapsed. Stateful, like {@link #mouseSingleClicked(MouseButton, Duration)}.
+     */
+    static EventPattern<Event, MouseEvent> mouseLongPressed(MouseButton button, Duration duration) {
+        return new LongPressPattern(button, duration);
+    }
+
+    /**
+     * Matches the drag events of a drag with the given button once the mouse has moved farther than the given
+     * threshold (in pixels) from where the button was pressed, so that small moves during a click do not start
+     * a drag. Stateful, like {@link #mouseSingleClicked(MouseButton, Duration)}.
+     */
+    static EventPattern<Event, MouseEvent> mouseDragged(MouseButton button, double threshold) {
+        return new DragThresholdPattern(button, threshold);
+    }
+
+    /**
+     * Matches the {@link RegionEvent}s of the given index that are fired on the node for mouse events of the given
+     * type that hit a region. They are only fired when the input map is installed with {@link Nodes}, after the
+     * input map's other handlers of the mouse event type and unless the mouse event was consumed already.
+     */
+    static <R> EventPattern<Event, RegionEvent<R>> mouseIn(EventType<MouseEvent> eventType, RegionIndex<R> regions) {
+        return new RegionPattern<>(regions.source(eventType));
+    }
+
+    static <R> EventPattern<Event, RegionEvent<R>> mouseClickedIn(RegionIndex<R> regions) {
+        return mouseIn(MOUSE_CLICKED, regions);
+    }
+
+    static <R> EventPattern<Event, RegionEvent<R>> mousePressedIn(RegionIndex<R> regions) {
+        return mouseIn(MOUSE_PRESSED, regions);
+    }
+
+    static <R> EventPattern<Event, RegionEvent<R>> mouseReleasedIn(RegionIndex<R> regions) {
+        return mouseIn(MOUSE_RELEASED, regions);
+    }
+
+    static <R> EventPattern<Event, RegionEvent<R>> mouseMovedIn(RegionIndex<R> regions) {
+        return mouseIn(MOUSE_MOVED, regions);
+    }
+
+    static <R> EventPattern<Event, RegionEvent<R>> mouseDraggedIn(RegionIndex<R> regions) {
+        return mouseIn(MOUSE_DRAGGED, regions);
+    }
+
+    /**
+     * Matches the {@link RegionEvent#REGION_ENTERED} events of the given index. These events are fired on the node
+     * at the pulse following mouse moves that change the hovered region: if the mouse crosses several regions
+     * within one pulse, only the final transition is fired. Each pulse with mouse moves costs a single lookup in
+     * the index. The mouse is followed with event filters on the node, so consumed mouse moves count too; they
+     * are added when the input map is installed with {@link Nodes} and removed along with it.
+     */
+    static <R> EventPattern<Event, RegionEvent<R>> regionEntered(RegionIndex<R> regions) {
+        return new RegionPattern<>(regions.hoverSource(RegionEvent.REGION_ENTERED));
+    }
+
+    /**
+     * Matches the {@link RegionEvent#REGION_EXITED} events of the given index, fired when the mouse leaves the
+     * hovered region or the node; see {@link #regionEntered(RegionIndex)}.
+     */
+    static <R> EventPattern<Event, RegionEvent<R>> regionExited(RegionIndex<R> regions) {
+        return new RegionPattern<>(regions.hoverSource(RegionEvent.REGION_EXITED));
+    }
+
+    /**
+     * Matches the {@link RegionEvent#REGION_HOVERED} events of the given index, fired at most once per pulse while
+     * the mouse moves within a region; see {@link #regionEntered(RegionIndex)}.
+     */
+    static <R> EventPattern<Event, RegionEvent<R>> regionHovered(RegionIndex<R> regions) {
+        return new RegionPattern<>(regions.hoverSource(RegionEvent.REGION_HOVERED));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+
+/**
+ * Implementation of {@link EventPattern#eventType(EventType)}; equal to any other pattern of the same event type.
+ */
+final class EventTypePattern<T extends Event> implements EventPattern<Event, T> {
+
+    /**
+     * Returns true if {@code actual} is {@code expected} or one of its sub types.
+     */
+    static boolean isSubtype(EventType<?> actual, EventType<?> expected) {
+        for(EventType<?> t = actual; t != null; t = t.getSuperType()) {
+            if(t.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final EventType<? extends T> eventType;
+    private final Set<EventType<? extends T>> eventTypes;
+
+    EventTypePattern(EventType<? extends T> eventType) {
+        this.eventType = eventType;
+        this.eventTypes = Collections.singleton(eventType);
+    }
+
+    @Override
+    public Optional<T> match(Event event) {
+        if(isSubtype(event.getEventType(), eventType)) {
+            @SuppressWarnings("unchecked")
+            T res = (T) event;
+            return Optional.of(res);
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Set<EventType<? extends T>> getEventTypes() {
+        return eventTypes;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof EventTypePattern && eventType.equals(((EventTypePattern<?>) other).eventType);
+    }
+
+    @Override
+    public int hashCode() {
+        return eventType.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return eventType.getName();
+    }
+}
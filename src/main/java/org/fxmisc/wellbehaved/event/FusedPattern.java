@@ -0,0 +1,133 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+
+/**
+ * A base pattern followed by a flat array of guards, each of which is either a condition added by
+ * {@link EventPattern#onlyIf(Predicate)} (or {@link EventPattern#unless(Predicate)}) or a pattern added by
+ * {@link EventPattern#andThen(EventPattern)}. Composing onto a {@code FusedPattern} copies its guards instead of
+ * wrapping it, so that {@code eventType(X).onlyIf(a).onlyIf(b).unless(c).andThen(p)} matches in a single loop
+ * rather than through a chain of nested patterns.
+ */
+final class FusedPattern<T extends Event, U extends T> implements EventPattern<T, U> {
+
+    static <T extends Event, U extends T> FusedPattern<T, U> onlyIf(
+            EventPattern<T, U> pattern, Predicate<? super U> condition) {
+        FusedPattern<T, U> p = fuse(pattern);
+        return new FusedPattern<>(p.base, append(p.guards, condition), append(p.isPattern, false),
+                p.typesOf, p.attributeTest, p.passesEventThrough);
+    }
+
+    static <T extends Event, U extends T, V extends U> FusedPattern<T, V> andThen(
+            EventPattern<T, U> pattern, EventPattern<? super U, V> next) {
+        FusedPattern<T, U> p = fuse(pattern);
+        FusedPattern<?, ?> n = fuse((EventPattern<?, ?>) next);
+        Object[] guards = append(p.guards, n.base);
+        boolean[] isPattern = append(p.isPattern, true);
+        for(int i = 0; i < n.guards.length; ++i) {
+            guards = append(guards, n.guards[i]);
+            isPattern = append(isPattern, n.isPattern[i]);
+        }
+        // next's attribute test is about the event next is given, which is the original event only if the
+        // patterns before it pass it through unchanged
+        EventAttribute.Test<?> attributeTest = p.attributeTest != null ? p.attributeTest
+                : p.passesEventThrough ? n.attributeTest
+                : null;
+        return new FusedPattern<>(p.base, guards, isPattern,
+                n.typesOf, attributeTest, p.passesEventThrough && n.passesEventThrough);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Event, U extends T> FusedPattern<T, U> fuse(EventPattern<T, U> pattern) {
+        if(pattern instanceof FusedPattern) {
+            return (FusedPattern<T, U>) pattern;
+        } else {
+            return new FusedPattern<>(pattern, new Object[0], new boolean[0], pattern,
+                    pattern.getAttributeTest().orElse(null), passesEventThrough(pattern));
+        }
+    }
+
+    /**
+     * Returns true for the built-in patterns that match with the very event they are given.
+     */
+    private static boolean passesEventThrough(EventPattern<?, ?> pattern) {
+        return pattern instanceof EventTypePattern
+                || pattern instanceof KeyStroke
+                || pattern instanceof KeyCombinationPattern
+                || pattern instanceof KeyCharacterPattern
+                || pattern instanceof KeyCodeSetPattern
+                || pattern instanceof KeyTypedPattern
+                || pattern instanceof KeyTypedRangePattern
+                || pattern instanceof MouseButtonPattern;
+    }
+
+    private static Object[] append(Object[] arr, Object elem) {
+        Object[] res = Arrays.copyOf(arr, arr.length + 1);
+        res[arr.length] = elem;
+        return res;
+    }
+
+    private static boolean[] append(boolean[] arr, boolean elem) {
+        boolean[] res = Arrays.copyOf(arr, arr.length + 1);
+        res[arr.length] = elem;
+        return res;
+    }
+
+    private final EventPattern<T, ?> base;
+    private final Object[] guards; // Predicate or EventPattern, as told by isPattern
+    private final boolean[] isPattern;
+    private final EventPattern<?, ?> typesOf; // the pattern that determines the event types
+    private final EventAttribute.Test<?> attributeTest;
+    private final boolean passesEventThrough; // whether the base and the pattern guards never transform the event
+
+    private FusedPattern(EventPattern<T, ?> base, Object[] guards, boolean[] isPattern,
+            EventPattern<?, ?> typesOf, EventAttribute.Test<?> attributeTest, boolean passesEventThrough) {
+        this.base = base;
+        this.guards = guards;
+        this.isPattern = isPattern;
+        this.typesOf = typesOf;
+        this.attributeTest = attributeTest;
+        this.passesEventThrough = passesEventThrough;
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Optional<? extends U> match(T event) {
+        Optional<?> baseMatch = base.match(event);
+        if(!baseMatch.isPresent()) {
+            return Optional.empty();
+        }
+        Object u = baseMatch.get();
+        Object original = u;
+        for(int i = 0; i < guards.length; ++i) {
+            if(isPattern[i]) {
+                Optional<?> m = ((EventPattern) guards[i]).match((Event) u);
+                if(!m.isPresent()) {
+                    return Optional.empty();
+                }
+                u = m.get();
+            } else if(!((Predicate) guards[i]).test(u)) {
+                return Optional.empty();
+            }
+        }
+        // reuse the base's result if no pattern transformed the event
+        return u == original ? (Optional<? extends U>) baseMatch : Optional.of((U) u);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<EventType<? extends U>> getEventTypes() {
+        return (Set<EventType<? extends U>>) (Set<?>) typesOf.getEventTypes();
+    }
+
+    @Override
+    public Optional<EventAttribute.Test<?>> getAttributeTest() {
+        return Optional.ofNullable(attributeTest);
+    }
+}
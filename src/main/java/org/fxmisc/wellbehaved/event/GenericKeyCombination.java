@@ -5,6 +5,8 @@ import javafx.scene.input.KeyEvent;
 
 import java.util.function.Predicate;
 
+import org.fxmisc.wellbehaved.event.internal.ModifierMask;
+
 /**
  * A generic helper class for pattern-matching a KeyEvent's {@link KeyCombination.Modifier modifiers} along with
  * the key event itself.
@@ -12,15 +14,17 @@ import java.util.function.Predicate;
 class GenericKeyCombination extends KeyCombination {
 
     private final Predicate<? super KeyEvent> keyTest;
+    private final ModifierMask modifierMask;
 
     GenericKeyCombination(Predicate<? super KeyEvent> keyTest, KeyCombination.Modifier... modifiers) {
         super(modifiers);
         this.keyTest = keyTest;
+        this.modifierMask = ModifierMask.of(this);
     }
 
     @Override
     public boolean match(KeyEvent event) {
-        return super.match(event) // matches the modifiers
+        return modifierMask.matches(event) // same as super.match(event), without re-resolving the shortcut key
                 && keyTest.test(event);
     }
 }
@@ -0,0 +1,137 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.event.EventTarget;
+import javafx.event.EventType;
+import javafx.scene.Node;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+
+import org.fxmisc.wellbehaved.event.internal.TimerWheel;
+import org.fxmisc.wellbehaved.event.internal.TimerWheel.Timeout;
+
+/**
+ * Base class of stateful gesture patterns. Each pattern instance keeps the state of the gesture of each node it is
+ * installed on in a few primitive fields; timeouts are scheduled on the shared {@link TimerWheel}. The state is
+ * updated by event filters, which the pattern adds as the {@link NodeTracker} of its {@link #gestureType}, so
+ * that it sees all the mouse events of the gesture, also those consumed by earlier handlers or matched by another
+ * alternative of {@link EventPattern#anyOf(EventPattern[])}. Matching only reads the state.
+ */
+abstract class GesturePattern extends NodeTracker implements EventPattern<Event, MouseEvent> {
+
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * The gesture state of one node.
+     */
+    static final class State {
+        double pressX;
+        double pressY;
+        boolean pressed;
+        boolean active;
+        MouseEvent pending;
+        Timeout timeout;
+
+        void cancel() {
+            pending = null;
+            if(timeout != null) {
+                timeout.cancel();
+            }
+        }
+
+        boolean movedBeyond(MouseEvent e, double distance) {
+            double dx = e.getScreenX() - pressX;
+            double dy = e.getScreenY() - pressY;
+            return dx * dx + dy * dy > distance * distance;
+        }
+    }
+
+    final MouseButton button;
+
+    /**
+     * The type of the gesture events that this pattern alone fires, a subtype of one of the public types of
+     * {@link MouseGestures}, or a type that is never fired for patterns that match plain mouse events. The nodes
+     * that install a handler of this type start this pattern's tracking.
+     */
+    final EventType<MouseEvent> gestureType;
+
+    private final Set<EventType<? extends MouseEvent>> trackedTypes;
+    private final Map<Object, State> states = new WeakHashMap<>();
+
+    /**
+     * @param trackedTypes the types of the mouse events that update the state
+     */
+    GesturePattern(MouseButton button, EventType<MouseEvent> gestureSuperType,
+            Set<EventType<? extends MouseEvent>> trackedTypes) {
+        this.button = button;
+        this.gestureType = new EventType<>(
+                gestureSuperType, gestureSuperType.getName() + "#" + nextId.incrementAndGet());
+        this.trackedTypes = Collections.unmodifiableSet(trackedTypes);
+        trackWith(gestureType);
+    }
+
+    /**
+     * Updates the state with the given event, whose type is one of the tracked types.
+     */
+    abstract void update(State state, MouseEvent event);
+
+    /**
+     * Matches the events of the {@link #gestureType}.
+     */
+    @Override
+    public Optional<MouseEvent> match(Event event) {
+        return event.getEventType() == gestureType
+                ? Optional.of((MouseEvent) event)
+                : Optional.empty();
+    }
+
+    @Override
+    public Set<EventType<? extends MouseEvent>> getEventTypes() {
+        return Collections.singleton(gestureType);
+    }
+
+    /**
+     * Returns the state of the given node, or null if the pattern is not installed on it.
+     */
+    final State getState(Object node) {
+        return states.get(node);
+    }
+
+    @Override
+    final Runnable start(Node node) {
+        State state = new State();
+        EventHandler<MouseEvent> filter = e -> update(state, e);
+        trackedTypes.forEach(t -> node.addEventFilter(t, filter));
+        states.put(node, state);
+        return () -> {
+            trackedTypes.forEach(t -> node.removeEventFilter(t, filter));
+            states.remove(node);
+            state.cancel();
+        };
+    }
+
+    /**
+     * Schedules the firing of a copy of the given event, with the {@link #gestureType}, on its source node.
+     */
+    final void schedule(State state, MouseEvent event, long delayNanos) {
+        if(state.timeout == null) {
+            state.timeout = TimerWheel.shared().newTimeout(() -> fire(state));
+        }
+        state.pending = event;
+        state.timeout.schedule(delayNanos);
+    }
+
+    private void fire(State state) {
+        MouseEvent e = state.pending;
+        state.pending = null;
+        Event.fireEvent((EventTarget) e.getSource(), e.copyFor(e.getSource(), e.getTarget(), gestureType));
+    }
+}
@@ -0,0 +1,205 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * A named condition that can be shared by many {@link InputMap}s (via {@link InputMap#when(BooleanSupplier, InputMap)},
+ * {@link InputMap#consumeWhen(EventPattern, BooleanSupplier, java.util.function.Consumer)} and their negated variants) and that is
+ * evaluated at most once per event dispatch: while one event walks a node's chain of input maps (i.e. during one call
+ * of {@link InputHandler#handle(javafx.event.Event)}), the result of the first evaluation is reused by all the maps
+ * guarded by the same {@code Guard}. Outside of a dispatch, the condition is evaluated on every call. Guards keep
+ * no reference to the event.
+ *
+ * <pre><code>
+ * Guard editable = Guard.of("editable", area::isEditable);
+ * InputMap&lt;KeyEvent&gt; edits = sequence(
+ *         consumeWhen(keyPressed(BACK_SPACE), editable, e -&gt; area.deletePreviousChar()),
+ *         consumeWhen(keyPressed(DELETE),     editable, e -&gt; area.deleteNextChar()),
+ *         unless(editable, consume(keyTyped(), e -&gt; beep())));
+ * </code></pre>
+ *
+ * <p>{@link OfTarget} is the equivalent for {@link org.fxmisc.wellbehaved.event.template.InputMapTemplate}s, where
+ * the result is cached per dispatch and target. The dispatch in progress is tracked per thread, but a guard's
+ * cached result is not synchronized, so a guard must not be evaluated on several threads at once.</p>
+ */
+public final class Guard implements BooleanSupplier {
+
+    /**
+     * Creates a guard of the given condition; the name is only used for diagnostics.
+     */
+    public static Guard of(String name, BooleanSupplier condition) {
+        return new Guard(name, condition, new Memo(), false);
+    }
+
+    /**
+     * Creates a guard of the given condition on the target of an
+     * {@link org.fxmisc.wellbehaved.event.template.InputMapTemplate}; the name is only used for diagnostics.
+     */
+    public static <S> OfTarget<S> ofTarget(String name, Predicate<? super S> condition) {
+        return new OfTarget<>(name, condition, new TargetMemo(), false);
+    }
+
+    /**
+     * Negates the given condition, preserving its caching if it is a {@code Guard}.
+     */
+    static BooleanSupplier not(BooleanSupplier condition) {
+        return condition instanceof Guard ? ((Guard) condition).negate() : () -> !condition.getAsBoolean();
+    }
+
+    // no dispatch scope is opened until the first guard is created, so maps without guards pay nothing
+    private static volatile boolean used = false;
+
+    // stamps are unique across threads, so that a memo is never reused for another thread's dispatch
+    private static final AtomicLong lastDispatch = new AtomicLong();
+
+    private static final class Dispatch {
+        // stamp of the dispatch in progress on this thread, or 0 if none
+        long current = 0;
+
+        // memos that reference a target, to be cleared once the outermost dispatch ends
+        final List<TargetMemo> targetMemos = new ArrayList<>();
+    }
+
+    private static final ThreadLocal<Dispatch> dispatches = ThreadLocal.withInitial(Dispatch::new);
+
+    private static final long NO_SCOPE = -1;
+
+    /**
+     * Starts the dispatch of an event, which may be nested in the dispatch of another event (when a handler fires
+     * an event); returns the stamp of the outer dispatch, to be passed to {@link #endDispatch(long)}.
+     */
+    static long beginDispatch() {
+        if(!used) {
+            return NO_SCOPE;
+        }
+        Dispatch d = dispatches.get();
+        long outer = d.current;
+        d.current = lastDispatch.incrementAndGet();
+        return outer;
+    }
+
+    static void endDispatch(long outer) {
+        if(outer == NO_SCOPE) {
+            return;
+        }
+        Dispatch d = dispatches.get();
+        d.current = outer;
+        if(outer == 0 && !d.targetMemos.isEmpty()) {
+            for(TargetMemo memo: d.targetMemos) {
+                memo.target = null;
+            }
+            d.targetMemos.clear();
+        }
+    }
+
+    private static final class Memo {
+        long dispatch = 0;
+        boolean value;
+    }
+
+    private final String name;
+    private final BooleanSupplier condition;
+    private final Memo memo;
+    private final boolean negated;
+
+    private Guard(String name, BooleanSupplier condition, Memo memo, boolean negated) {
+        used = true;
+        this.name = name;
+        this.condition = condition;
+        this.memo = memo;
+        this.negated = negated;
+    }
+
+    /**
+     * Evaluates the condition, reusing the result of the previous evaluation (by this guard or its negation)
+     * if it was made during the same event dispatch.
+     */
+    @Override
+    public boolean getAsBoolean() {
+        long dispatch = dispatches.get().current;
+        if(dispatch == 0) {
+            return condition.getAsBoolean() != negated;
+        }
+        if(memo.dispatch != dispatch) {
+            memo.value = condition.getAsBoolean();
+            memo.dispatch = dispatch;
+        }
+        return memo.value != negated;
+    }
+
+    /**
+     * Returns the negation of this guard, which shares this guard's cached result.
+     */
+    public Guard negate() {
+        return new Guard(name, condition, memo, !negated);
+    }
+
+    @Override
+    public String toString() {
+        return negated ? "!" + name : name;
+    }
+
+    private static final class TargetMemo {
+        long dispatch = 0;
+        Object target = null;
+        boolean value;
+    }
+
+    /**
+     * A {@link Guard} on the target of an {@link org.fxmisc.wellbehaved.event.template.InputMapTemplate}, to be
+     * used with the template's {@code when}, {@code unless}, {@code consumeWhen} and {@code consumeUnless}.
+     */
+    public static final class OfTarget<S> implements Predicate<S> {
+        private final String name;
+        private final Predicate<? super S> condition;
+        private final TargetMemo memo;
+        private final boolean negated;
+
+        private OfTarget(String name, Predicate<? super S> condition, TargetMemo memo, boolean negated) {
+            used = true;
+            this.name = name;
+            this.condition = condition;
+            this.memo = memo;
+            this.negated = negated;
+        }
+
+        /**
+         * Evaluates the condition for the given target, reusing the result of the previous evaluation
+         * (by this guard or its negation) if it was for the same target during the same event dispatch.
+         */
+        @Override
+        public boolean test(S target) {
+            Dispatch d = dispatches.get();
+            long dispatch = d.current;
+            if(dispatch == 0) {
+                return condition.test(target) != negated;
+            }
+            if(memo.dispatch != dispatch || memo.target != target) {
+                if(memo.target == null) {
+                    d.targetMemos.add(memo);
+                }
+                memo.value = condition.test(target);
+                memo.dispatch = dispatch;
+                memo.target = target;
+            }
+            return memo.value != negated;
+        }
+
+        /**
+         * Returns the negation of this guard, which shares this guard's cached result.
+         */
+        @Override
+        public OfTarget<S> negate() {
+            return new OfTarget<>(name, condition, memo, !negated);
+        }
+
+        @Override
+        public String toString() {
+            return negated ? "!" + name : name;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+import javafx.event.Event;
+
+import org.fxmisc.wellbehaved.event.InputHandler.Result;
+
+/**
+ * {@link InputMonitor} that times each handler running on the JavaFX application thread against a budget
+ * and samples that thread's stack from a background thread when a handler exceeds it. The handlers themselves
+ * only pay for a few field writes; all the checking is done by the background thread, which wakes up
+ * twice per budget.
+ */
+class HandlerWatchdog implements InputMonitor {
+
+    private final long budgetNanos;
+    private final Consumer<? super SlowHandlerReport> reporter;
+    private final ScheduledExecutorService sampler;
+
+    private Thread fxThread = null;
+    private int depth = 0; // only the outermost handler is timed; accessed only from the FX thread
+
+    // written by the FX thread, read by the sampler; startNanos is written last/cleared first
+    private volatile EventPattern<?, ?> pattern;
+    private volatile Event event;
+    private volatile long startNanos = 0;
+
+    // accessed only from the sampler thread
+    private long lastReportedStart = 0;
+
+    HandlerWatchdog(long budgetNanos, Consumer<? super SlowHandlerReport> reporter) {
+        this.budgetNanos = budgetNanos;
+        this.reporter = reporter;
+        this.sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "WellBehavedFX handler watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(budgetNanos / 2, TimeUnit.MILLISECONDS.toNanos(1));
+        sampler.scheduleAtFixedRate(this::check, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    void shutdown() {
+        sampler.shutdownNow();
+    }
+
+    @Override
+    public void handlerStarted(Event event, EventPattern<?, ?> pattern) {
+        if(!Platform.isFxApplicationThread()) {
+            return;
+        }
+        if(depth++ == 0) {
+            fxThread = Thread.currentThread();
+            this.pattern = pattern;
+            this.event = event;
+            this.startNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void handlerFinished(Event event, EventPattern<?, ?> pattern, Result result, long nanos) {
+        exitHandler();
+    }
+
+    @Override
+    public void handlerFailed(Event event, EventPattern<?, ?> pattern, Throwable exception) {
+        exitHandler();
+    }
+
+    private void exitHandler() {
+        if(!Platform.isFxApplicationThread()) {
+            return;
+        }
+        if(--depth == 0) {
+            this.startNanos = 0;
+            this.pattern = null;
+            this.event = null;
+        }
+    }
+
+    private void check() {
+        long start = startNanos;
+        if(start == 0 || start == lastReportedStart) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        if(elapsed <= budgetNanos) {
+            return;
+        }
+
+        EventPattern<?, ?> p = pattern;
+        Event e = event;
+        StackTraceElement[] stack = fxThread.getStackTrace();
+        if(startNanos != start || p == null || e == null) {
+            return; // the handler finished in the meantime; the sample would be misleading
+        }
+
+        lastReportedStart = start;
+        try {
+            reporter.accept(new SlowHandlerReport(p, e, elapsed, stack));
+        } catch(RuntimeException ex) {
+            // do not let a faulty reporter cancel the periodic check
+            Thread t = Thread.currentThread();
+            t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.GestureEvent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+
+import org.fxmisc.wellbehaved.event.InputHandler.Result;
+
+/**
+ * A fixed-size ring buffer of the most recently handled input events, for post-mortem analysis of UI bugs.
+ * For each handler invocation reported to it (see {@link Nodes#addInputMonitor(InputMonitor)}), it records
+ * the event type, key code, modifiers, mouse button and coordinates of the event, the {@link EventPattern}
+ * that matched it and the handler's {@link Result} (or the fact that the handler threw an exception).
+ *
+ * <p>Recording is allocation-free (except for the first occurrence of each event type) and never blocks: the
+ * data is kept in preallocated primitive arrays, written under a {@link StampedLock} write lock that readers never
+ * hold (they copy entries under optimistic read stamps), so the recorder is cheap enough to leave on in
+ * production.</p>
+ *
+ * <pre><code>
+ * InputEventRecorder recorder = new InputEventRecorder(256);
+ * recorder.setOnHandlerFailure(System.err::println); // dump the buffer whenever a handler throws
+ * Nodes.addInputMonitor(recorder);
+ * // ...
+ * String lastEvents = recorder.dump();
+ * </code></pre>
+ *
+ * <p>Events should be recorded, and the recorder cleared, from a single thread (normally the JavaFX application
+ * thread); {@link #dump()} may be called from any thread and never returns torn entries.</p>
+ */
+public final class InputEventRecorder implements InputMonitor {
+
+    /** Value of the key code and mouse button columns when the event does not have one */
+    public static final int NONE = -1;
+
+    public static final int SHIFT = 1;
+    public static final int CONTROL = 1 << 1;
+    public static final int ALT = 1 << 2;
+    public static final int META = 1 << 3;
+    public static final int SHORTCUT = 1 << 4;
+
+    private static final byte FAILED = -1;
+    private static final Result[] RESULTS = Result.values();
+
+    private final int mask;
+
+    // slots are written under the write lock; a reader copies a slot under an optimistic read stamp and retries
+    // if the stamp is no longer valid, then accepts the slot only if seq[i] is the entry number it wanted
+    private final StampedLock lock = new StampedLock();
+    private final long[] seq;
+    private final long[] times;
+    private final int[] types;
+    private final int[] keyCodes;
+    private final int[] modifiers;
+    private final int[] buttons;
+    private final double[] xs;
+    private final double[] ys;
+    private final byte[] results;
+    private final EventPattern<?, ?>[] patterns;
+
+    private final AtomicLong written = new AtomicLong();
+
+    // event type ids; only modified by the recording thread, copied on write for readers
+    private final Map<EventType<?>, Integer> typeIds = new IdentityHashMap<>();
+    private volatile EventType<?>[] typesById = new EventType<?>[0];
+
+    private volatile Consumer<? super String> onHandlerFailure = null;
+
+    /**
+     * Creates a recorder that keeps at least the last {@code capacity} handled events
+     * (the capacity is rounded up to a power of two).
+     */
+    public InputEventRecorder(int capacity) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if(size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        seq = new long[size];
+        times = new long[size];
+        types = new int[size];
+        keyCodes = new int[size];
+        modifiers = new int[size];
+        buttons = new int[size];
+        xs = new double[size];
+        ys = new double[size];
+        results = new byte[size];
+        patterns = new EventPattern<?, ?>[size];
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * When set, the given consumer receives a {@link #dump()} of the buffer every time a handler throws an exception.
+     */
+    public void setOnHandlerFailure(Consumer<? super String> onHandlerFailure) {
+        this.onHandlerFailure = onHandlerFailure;
+    }
+
+    @Override
+    public void handlerFinished(Event event, EventPattern<?, ?> pattern, Result result, long nanos) {
+        record(event, pattern, (byte) result.ordinal());
+    }
+
+    @Override
+    public void handlerFailed(Event event, EventPattern<?, ?> pattern, Throwable exception) {
+        record(event, pattern, FAILED);
+        Consumer<? super String> dumpTo = onHandlerFailure;
+        if(dumpTo != null) {
+            dumpTo.accept(dump());
+        }
+    }
+
+    private void record(Event event, EventPattern<?, ?> pattern, byte result) {
+        long n = written.get();
+        int i = (int) (n & mask);
+
+        int keyCode = NONE;
+        int mods = 0;
+        int button = NONE;
+        double x = Double.NaN;
+        double y = Double.NaN;
+        if(event instanceof KeyEvent) {
+            KeyEvent e = (KeyEvent) event;
+            keyCode = e.getCode().ordinal();
+            mods = modifiers(e.isShiftDown(), e.isControlDown(), e.isAltDown(), e.isMetaDown(), e.isShortcutDown());
+        } else if(event instanceof MouseEvent) {
+            MouseEvent e = (MouseEvent) event;
+            button = e.getButton().ordinal();
+            mods = modifiers(e.isShiftDown(), e.isControlDown(), e.isAltDown(), e.isMetaDown(), e.isShortcutDown());
+            x = e.getX();
+            y = e.getY();
+        } else if(event instanceof GestureEvent) {
+            GestureEvent e = (GestureEvent) event;
+            mods = modifiers(e.isShiftDown(), e.isControlDown(), e.isAltDown(), e.isMetaDown(), e.isShortcutDown());
+            x = e.getX();
+            y = e.getY();
+        }
+
+        int type = typeId(event.getEventType());
+        long stamp = lock.writeLock(); // never contended: readers only read optimistically
+        try {
+            writeSlot(i, n, type, keyCode, mods, button, x, y, pattern, result);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        written.lazySet(n + 1);
+    }
+
+    private void writeSlot(int i, long n, int type, int keyCode, int mods, int button, double x, double y,
+            EventPattern<?, ?> pattern, byte result) {
+        times[i] = System.currentTimeMillis();
+        types[i] = type;
+        keyCodes[i] = keyCode;
+        modifiers[i] = mods;
+        buttons[i] = button;
+        xs[i] = x;
+        ys[i] = y;
+        results[i] = result;
+        patterns[i] = pattern;
+        seq[i] = n;
+    }
+
+    private static int modifiers(boolean shift, boolean control, boolean alt, boolean meta, boolean shortcut) {
+        return (shift ? SHIFT : 0)
+             | (control ? CONTROL : 0)
+             | (alt ? ALT : 0)
+             | (meta ? META : 0)
+             | (shortcut ? SHORTCUT : 0);
+    }
+
+    private int typeId(EventType<?> type) {
+        Integer id = typeIds.get(type);
+        if(id == null) {
+            EventType<?>[] ts = typesById;
+            EventType<?>[] res = new EventType<?>[ts.length + 1];
+            System.arraycopy(ts, 0, res, 0, ts.length);
+            res[ts.length] = type;
+            id = ts.length;
+            typeIds.put(type, id);
+            typesById = res;
+        }
+        return id;
+    }
+
+    /**
+     * Returns the recorded events, oldest first, one per line. Entries that are being overwritten while
+     * dumping (which can only happen when dumping from a thread other than the recording one) are skipped.
+     */
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        long end = written.get();
+        long start = Math.max(0, end - (mask + 1));
+        for(long n = start; n < end; ++n) {
+            int i = (int) (n & mask);
+            long slotSeq;
+            long time;
+            int type;
+            int keyCode;
+            int mods;
+            int button;
+            double x;
+            double y;
+            byte result;
+            EventPattern<?, ?> pattern;
+            for(;;) {
+                long stamp = lock.tryOptimisticRead();
+                slotSeq = seq[i];
+                time = times[i];
+                type = types[i];
+                keyCode = keyCodes[i];
+                mods = modifiers[i];
+                button = buttons[i];
+                x = xs[i];
+                y = ys[i];
+                result = results[i];
+                pattern = patterns[i];
+                if(stamp != 0 && lock.validate(stamp)) {
+                    break;
+                }
+                Thread.yield(); // the recording thread is writing a slot
+            }
+            if(slotSeq != n) {
+                continue; // overwritten or cleared
+            }
+
+            EventType<?>[] ts = typesById;
+            sb.append(time).append(' ').append(type < ts.length ? ts[type] : "?");
+            if(keyCode != NONE) {
+                sb.append(" code=").append(KeyCode.values()[keyCode]);
+            }
+            if(button != NONE) {
+                sb.append(" button=").append(MouseButton.values()[button]);
+            }
+            if(mods != 0) {
+                sb.append(" modifiers=");
+                appendModifiers(sb, mods);
+            }
+            if(!Double.isNaN(x)) {
+                sb.append(" x=").append(x).append(" y=").append(y);
+            }
+            sb.append(" pattern=").append(pattern)
+              .append(" result=").append(result == FAILED ? "EXCEPTION" : RESULTS[result].name())
+              .append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void appendModifiers(StringBuilder sb, int mods) {
+        String sep = "";
+        String[] names = { "Shift", "Ctrl", "Alt", "Meta", "Shortcut" };
+        for(int bit = 0; bit < names.length; ++bit) {
+            if((mods & (1 << bit)) != 0) {
+                sb.append(sep).append(names[bit]);
+                sep = "+";
+            }
+        }
+    }
+
+    /**
+     * Discards all recorded events.
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            for(int i = 0; i <= mask; ++i) {
+                seq[i] = -1;
+                patterns[i] = null;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Arrays;
+
+import javafx.event.Event;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+
+/**
+ * The input accumulated on a node during one frame (i.e. between two JavaFX pulses), for applications driven by
+ * an animation loop that prefer processing the input once per frame over handling each event: see
+ * {@link InputMap#consumePerFrame(EventPattern, java.util.function.Consumer)}.
+ *
+ * <p>A frame is read-only for its consumer. To avoid allocating per frame, frames are double-buffered: the
+ * same two instances are reused alternately, so a frame must not be used after the next frame is delivered.
+ * Keys and buttons are kept in bit sets; use {@link InputState} for the keys that are held down across frames.</p>
+ */
+public final class InputFrame {
+
+    private static final int KEY_WORDS = (KeyCode.values().length + 63) >>> 6;
+
+    final long[] keysPressed = new long[KEY_WORDS];
+    final long[] keysReleased = new long[KEY_WORDS];
+    final StringBuilder typed = new StringBuilder();
+    int buttonsPressed = 0;
+    int buttonsReleased = 0;
+    double mouseDeltaX = 0;
+    double mouseDeltaY = 0;
+    double mouseX = Double.NaN;
+    double mouseY = Double.NaN;
+    double scrollDeltaX = 0;
+    double scrollDeltaY = 0;
+    int eventCount = 0;
+
+    InputFrame() {}
+
+    /**
+     * Returns true if the given key was pressed during the frame (including auto-repeated presses).
+     */
+    public boolean isPressed(KeyCode code) {
+        return isSet(keysPressed, code.ordinal());
+    }
+
+    public boolean isReleased(KeyCode code) {
+        return isSet(keysReleased, code.ordinal());
+    }
+
+    public boolean isPressed(MouseButton button) {
+        return (buttonsPressed & (1 << button.ordinal())) != 0;
+    }
+
+    public boolean isReleased(MouseButton button) {
+        return (buttonsReleased & (1 << button.ordinal())) != 0;
+    }
+
+    /**
+     * Returns the characters typed during the frame, in order.
+     */
+    public CharSequence getTyped() {
+        return typed;
+    }
+
+    /**
+     * Returns the horizontal distance (in screen coordinates) travelled by the mouse during the frame.
+     */
+    public double getMouseDeltaX() {
+        return mouseDeltaX;
+    }
+
+    public double getMouseDeltaY() {
+        return mouseDeltaY;
+    }
+
+    /**
+     * Returns the horizontal position of the mouse, in the coordinates of the node, at its last event
+     * (possibly during an earlier frame), or {@code NaN} if there has not been any mouse event yet.
+     */
+    public double getMouseX() {
+        return mouseX;
+    }
+
+    public double getMouseY() {
+        return mouseY;
+    }
+
+    /**
+     * Returns the sum of the horizontal deltas of the scroll events of the frame.
+     */
+    public double getScrollDeltaX() {
+        return scrollDeltaX;
+    }
+
+    public double getScrollDeltaY() {
+        return scrollDeltaY;
+    }
+
+    /**
+     * Returns the number of events accumulated into the frame.
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    void add(Event event) {
+        ++eventCount;
+        if(event instanceof KeyEvent) {
+            KeyEvent e = (KeyEvent) event;
+            if(e.getEventType() == KeyEvent.KEY_PRESSED) {
+                set(keysPressed, e.getCode().ordinal());
+            } else if(e.getEventType() == KeyEvent.KEY_RELEASED) {
+                set(keysReleased, e.getCode().ordinal());
+            } else if(e.getEventType() == KeyEvent.KEY_TYPED) {
+                typed.append(e.getCharacter());
+            }
+        } else if(event instanceof MouseEvent) {
+            MouseEvent e = (MouseEvent) event;
+            if(e.getEventType() == MouseEvent.MOUSE_PRESSED) {
+                buttonsPressed |= 1 << e.getButton().ordinal();
+            } else if(e.getEventType() == MouseEvent.MOUSE_RELEASED) {
+                buttonsReleased |= 1 << e.getButton().ordinal();
+            }
+            mouseX = e.getX();
+            mouseY = e.getY();
+        } else if(event instanceof ScrollEvent) {
+            ScrollEvent e = (ScrollEvent) event;
+            scrollDeltaX += e.getDeltaX();
+            scrollDeltaY += e.getDeltaY();
+        }
+    }
+
+    /**
+     * Clears the accumulated input, except for the mouse position, which carries over from the given frame.
+     */
+    void reset(InputFrame previous) {
+        Arrays.fill(keysPressed, 0);
+        Arrays.fill(keysReleased, 0);
+        typed.setLength(0);
+        buttonsPressed = 0;
+        buttonsReleased = 0;
+        mouseDeltaX = 0;
+        mouseDeltaY = 0;
+        mouseX = previous.mouseX;
+        mouseY = previous.mouseY;
+        scrollDeltaX = 0;
+        scrollDeltaY = 0;
+        eventCount = 0;
+    }
+
+    private static boolean isSet(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+}
@@ -0,0 +1,72 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.function.BiConsumer;
+
+import javafx.event.Event;
+import javafx.scene.input.MouseEvent;
+
+import org.fxmisc.wellbehaved.event.internal.PulseScheduler;
+
+/**
+ * Double buffer of {@link InputFrame}s of one node: events are accumulated into the back frame, which is swapped
+ * with the front frame and delivered at the next pulse, together with the latest event of the frame.
+ */
+final class InputFrameBuffer {
+    private final BiConsumer<? super InputFrame, ? super Event> deliver;
+
+    private InputFrame front = new InputFrame();
+    private InputFrame back = new InputFrame();
+    private Event latest = null;
+    private boolean swapScheduled = false;
+
+    // screen position of the last mouse event, for the deltas; carries over from frame to frame while the mouse
+    // stays over the node
+    private double lastScreenX = Double.NaN;
+    private double lastScreenY = Double.NaN;
+
+    InputFrameBuffer(BiConsumer<? super InputFrame, ? super Event> deliver) {
+        this.deliver = deliver;
+    }
+
+    /**
+     * Forgets the last mouse position, e.g. when the mouse leaves or enters the node, so that the movement
+     * outside of the node does not count as a delta.
+     */
+    void resetMouse() {
+        lastScreenX = Double.NaN;
+        lastScreenY = Double.NaN;
+    }
+
+    void offer(Event event) {
+        if(!swapScheduled) {
+            swapScheduled = true;
+            PulseScheduler.runOnNextPulse(this::swap);
+        }
+        if(event instanceof MouseEvent) {
+            MouseEvent e = (MouseEvent) event;
+            if(e.getEventType() == MouseEvent.MOUSE_EXITED) {
+                resetMouse();
+            } else {
+                if(e.getEventType() != MouseEvent.MOUSE_ENTERED && !Double.isNaN(lastScreenX)) {
+                    back.mouseDeltaX += e.getScreenX() - lastScreenX;
+                    back.mouseDeltaY += e.getScreenY() - lastScreenY;
+                }
+                lastScreenX = e.getScreenX();
+                lastScreenY = e.getScreenY();
+            }
+        }
+        back.add(event);
+        latest = event;
+    }
+
+    private void swap() {
+        swapScheduled = false;
+        InputFrame frame = back;
+        Event event = latest;
+        back = front;
+        back.reset(frame);
+        front = frame;
+        latest = null;
+        deliver.accept(frame, event);
+    }
+}
@@ -45,9 +45,20 @@ public interface InputHandler<T extends Event> extends EventHandler<T> {
      */
     Result process(T event);
 
+    /**
+     * Processes the event and consumes it if the result is {@link Result#CONSUME}. {@link Guard}s reuse their
+     * results for the duration of this call.
+     */
     @Override
     default void handle(T event) {
-        switch(process(event)) {
+        long outer = Guard.beginDispatch();
+        Result result;
+        try {
+            result = process(event);
+        } finally {
+            Guard.endDispatch(outer);
+        }
+        switch(result) {
             case CONSUME: event.consume(); break;
             case PROCEED: /* do nothing */ break;
             case IGNORE:  /* do nothing */ break;
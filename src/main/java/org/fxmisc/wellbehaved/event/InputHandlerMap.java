@@ -1,6 +1,7 @@
 package org.fxmisc.wellbehaved.event;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -12,20 +13,13 @@ import javafx.event.EventType;
 
 import org.fxmisc.wellbehaved.event.InputHandler.Result;
 import org.fxmisc.wellbehaved.event.InputMap.HandlerConsumer;
+import org.fxmisc.wellbehaved.event.internal.DecisionTree;
 import org.fxmisc.wellbehaved.event.internal.PrefixTree;
 import org.fxmisc.wellbehaved.event.internal.PrefixTree.Ops;
 
 class InputHandlerMap<E extends Event> {
 
-    private final BiFunction<InputHandler<? super E>, InputHandler<? super E>, InputHandler<E>> SEQ =
-            (h1, h2) -> evt -> {
-                switch(h1.process(evt)) {
-                    case PROCEED: return h2.process(evt);
-                    case CONSUME: return Result.CONSUME;
-                    case IGNORE:  return Result.IGNORE;
-                    default: throw new AssertionError("unreachable code");
-                }
-            };
+    private final BiFunction<InputHandler<? super E>, InputHandler<? super E>, InputHandler<E>> SEQ = HandlerSeq::of;
 
     private final Ops<EventType<? extends E>, InputHandler<? super E>> OPS = new Ops<EventType<? extends E>, InputHandler<? super E>>() {
 
@@ -102,4 +96,66 @@ class InputHandlerMap<E extends Event> {
     void forEach(HandlerConsumer<? super E> f) {
         handlerTree.entries().forEach(th -> f.accept(th.getKey(), th.getValue()));
     }
-}
\ No newline at end of file
+}
+
+/**
+ * Handlers run in sequence until one of them does not {@link Result#PROCEED}. Nested sequences are flattened and
+ * the handlers are compiled into a {@link DecisionTree} the first time an event is processed, so that runs of
+ * built-in patterns testing the same attribute (e.g. many {@code keyPressed(KeyCode)} bindings) cost one lookup.
+ *
+ * <p>A sequence shares its handlers with the sequence it extends (as a persistent list), so that building a
+ * sequence of n handlers one at a time takes O(n) instead of copying them on every step.</p>
+ */
+class HandlerSeq<E extends Event> implements InputHandler<E> {
+
+    @SuppressWarnings("unchecked")
+    static <E extends Event> HandlerSeq<E> of(InputHandler<? super E> h1, InputHandler<? super E> h2) {
+        HandlerSeq<E> seq = h1 instanceof HandlerSeq ? (HandlerSeq<E>) h1 : new HandlerSeq<>(null, h1);
+        if(h2 instanceof HandlerSeq) {
+            for(InputHandler<? super E> h: ((HandlerSeq<E>) h2).toList()) {
+                seq = new HandlerSeq<>(seq, h);
+            }
+            return seq;
+        } else {
+            return new HandlerSeq<>(seq, h2);
+        }
+    }
+
+    private final HandlerSeq<E> init;
+    private final InputHandler<? super E> last;
+    private final int size;
+    private DecisionTree<InputHandler<? super E>> tree = null;
+
+    private HandlerSeq(HandlerSeq<E> init, InputHandler<? super E> last) {
+        this.init = init;
+        this.last = last;
+        this.size = init == null ? 1 : init.size + 1;
+    }
+
+    private List<InputHandler<? super E>> toList() {
+        @SuppressWarnings("unchecked")
+        InputHandler<? super E>[] handlers = (InputHandler<? super E>[]) new InputHandler<?>[size];
+        for(HandlerSeq<E> seq = this; seq != null; seq = seq.init) {
+            handlers[seq.size - 1] = seq.last;
+        }
+        return Arrays.asList(handlers);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Result process(E event) {
+        if(tree == null) {
+            tree = DecisionTree.compile(toList(),
+                    h -> h instanceof PatternHandler ? ((PatternHandler<?, ?>) h).getAttributeTest() : null);
+        }
+        for(int i = 0; i < tree.getStepCount(); ++i) {
+            for(Object h: tree.getCandidates(i, event)) {
+                Result res = ((InputHandler<? super E>) h).process(event);
+                if(res != Result.PROCEED) {
+                    return res;
+                }
+            }
+        }
+        return Result.PROCEED;
+    }
+}
@@ -1,16 +1,42 @@
 package org.fxmisc.wellbehaved.event;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Stream;
 
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.event.Event;
 import javafx.event.EventType;
+import javafx.scene.Node;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.util.Duration;
 
 import org.fxmisc.wellbehaved.event.InputHandler.Result;
+import org.fxmisc.wellbehaved.event.internal.AsyncHandlers;
+import org.fxmisc.wellbehaved.event.internal.Coalescer;
+import org.fxmisc.wellbehaved.event.internal.Debouncer;
+import org.fxmisc.wellbehaved.event.internal.Durations;
+import org.fxmisc.wellbehaved.event.internal.InputMapDependencies;
+import org.fxmisc.wellbehaved.event.internal.InputMonitors;
+import org.fxmisc.wellbehaved.event.internal.KeyRepeatCoalescer;
+import org.fxmisc.wellbehaved.event.internal.KeySequenceMatcher;
+import org.fxmisc.wellbehaved.event.internal.LatestAsync;
+import org.fxmisc.wellbehaved.event.internal.PatternEventTypes;
+import org.fxmisc.wellbehaved.event.internal.Throttler;
 
 /**
  * Pattern matching for {@link Event}s.
@@ -61,7 +87,8 @@ import org.fxmisc.wellbehaved.event.InputHandler.Result;
  *         {@link #upCast(InputMap)}, and {@link #without(InputMap)}.
  *     </li>
  *     <li>
- *         The condition-adding ones: {@link #when(BooleanSupplier, InputMap)} and
+ *         The condition-adding ones: {@link #when(BooleanSupplier, InputMap)},
+ *         {@link #whenObservable(ObservableValue, InputMap)} and
  *         {@link #unless(BooleanSupplier, InputMap)}
  *     </li>
  *     <li>
@@ -70,6 +97,21 @@ import org.fxmisc.wellbehaved.event.InputHandler.Result;
  *         and {@link #consumeUnless(EventType, BooleanSupplier, Consumer)}
  *     </li>
  *     <li>
+ *         Multi-stroke key sequences: {@link #sequenceOf(KeyChords)}
+ *     </li>
+ *     <li>
+ *         Consume now, handle at the next pulse: {@link #coalesce(EventPattern, Consumer)} and
+ *         {@link #consumeBatched(EventPattern, Consumer)}
+ *     </li>
+ *     <li>
+ *         Rate-limited: {@link #debounce(EventPattern, Duration, Consumer)} and
+ *         {@link #throttle(EventPattern, Duration, Consumer)}
+ *     </li>
+ *     <li>
+ *         Off the JavaFX application thread: {@link #consumeAsync(EventPattern, Function, BiConsumer)} and
+ *         {@link #consumeAsyncLatest(EventPattern, Function, BiConsumer)}
+ *     </li>
+ *     <li>
  *         The post-conditions: {@link #ifIgnored(Consumer)}, {@link #ifProcessed(Consumer)},
  *         {@link #ifConsumed(Consumer)}.
  *     </li>
@@ -252,10 +294,7 @@ public interface InputMap<E extends Event> {
     public static <T extends Event, U extends T> InputMap<U> consume(
             EventPattern<? super T, ? extends U> eventPattern,
             Consumer<? super U> action) {
-        return process(eventPattern, u -> {
-            action.accept(u);
-            return Result.CONSUME;
-        });
+        return process(eventPattern, new PatternActionMap.ConsumeAction<>(action));
     }
 
     /**
@@ -275,7 +314,7 @@ public interface InputMap<E extends Event> {
      */
     public static <T extends Event, U extends T> InputMap<U> consume(
             EventPattern<? super T, ? extends U> eventPattern) {
-        return process(eventPattern, u -> Result.CONSUME);
+        return process(eventPattern, PatternActionMap.CONST_CONSUME);
     }
 
     /**
@@ -287,6 +326,258 @@ public interface InputMap<E extends Event> {
         return consume(EventPattern.eventType(eventType));
     }
 
+    /**
+     * If the given {@link EventPattern} matches the given event type, consumes the event right away, but defers
+     * the given action to the next JavaFX pulse. All events matched for the same node before that pulse are
+     * coalesced, so that the action runs at most once per pulse per node: with the latest event or, for
+     * {@link javafx.scene.input.ScrollEvent}s, with a copy of the latest event whose deltas are the sums of
+     * the coalesced events' deltas. Useful for high-frequency events, such as {@code MOUSE_MOVED},
+     * {@code MOUSE_DRAGGED} or {@code SCROLL}, whose handlers are expensive (e.g. cause a re-layout).
+     */
+    public static <T extends Event, U extends T> InputMap<U> coalesce(
+            EventPattern<? super T, ? extends U> eventPattern,
+            Consumer<? super U> action) {
+        Coalescer<Object, U> coalescer = new Coalescer<>(Coalescer::latestOrScrollSum,
+                (node, u) -> InputMonitors.runDeferred(eventPattern, u, action));
+        return process(eventPattern, u -> {
+            coalescer.offer(u.getSource(), u);
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * If the given {@link EventPattern} matches the given event type, consumes the event right away and adds it
+     * to a batch. At the next JavaFX pulse, the given action is called once per node with all the events matched
+     * for that node since the previous pulse, in the order they occurred. Useful when each event causes an
+     * expensive update (e.g. inserting typed characters into a large document), so that the update is done once
+     * per frame instead of once per event:
+     *
+     * <pre><code>
+     * consumeBatched(keyTyped(), events -&gt; document.insert(caret, concatCharacters(events)))
+     * </code></pre>
+     *
+     * <p>Note that the batched events are handled after any event that is handled right away in the meantime:
+     * e.g. when typed characters are batched, a {@code KEY_PRESSED} handler moving the caret runs before the
+     * characters typed before that key press are inserted. Batch the events of such handlers as well
+     * (or none at all) where the order matters.</p>
+     */
+    public static <T extends Event, U extends T> InputMap<U> consumeBatched(
+            EventPattern<? super T, ? extends U> eventPattern,
+            Consumer<? super List<U>> action) {
+        Coalescer<Object, List<U>> batcher = new Coalescer<>(Coalescer::append, (node, batch) ->
+                InputMonitors.runDeferred(eventPattern, batch.get(batch.size() - 1), u -> action.accept(batch)));
+        return process(eventPattern, u -> {
+            batcher.offer(u.getSource(), Collections.singletonList(u));
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * If the given {@link EventPattern} matches the given event type, consumes the event right away and accumulates
+     * it into the node's current {@link InputFrame}: keys and mouse buttons pressed and released, typed text,
+     * mouse and scroll deltas. At the next JavaFX pulse, the given action is called once per node with the frame,
+     * so that applications driven by an animation loop process their input in one pass per frame:
+     *
+     * <pre><code>
+     * consumePerFrame(anyOf(keyPressed(), keyReleased(), mouseMoved(), mouseDragged()), frame -&gt; {
+     *     camera.rotate(frame.getMouseDeltaX(), frame.getMouseDeltaY());
+     *     if(frame.isPressed(KeyCode.SPACE)) { jump(); }
+     * })
+     * </code></pre>
+     *
+     * <p>Frames are double-buffered and reused; see {@link InputFrame}. The mouse deltas only add up the movements
+     * over the node: they restart when the mouse enters or leaves the node.</p>
+     */
+    public static <T extends Event, U extends T> InputMap<U> consumePerFrame(
+            EventPattern<? super T, ? extends U> eventPattern,
+            Consumer<? super InputFrame> action) {
+        Map<Object, InputFrameBuffer> buffers = new WeakHashMap<>();
+        InputMap<U> accumulate = process(eventPattern, u -> {
+            buffers.computeIfAbsent(u.getSource(), node -> new InputFrameBuffer((frame, latest) ->
+                    InputMonitors.runDeferred(eventPattern, latest, e -> action.accept(frame)))).offer(u);
+            return Result.CONSUME;
+        });
+        // the mouse deltas do not include the movement outside of the node, also if the pattern does not match
+        // the mouse entering or leaving the node: the map also listens to these events, without consuming them
+        InputMap<MouseEvent> crossing = process(
+                EventPattern.<Event, MouseEvent>anyOf(EventPattern.mouseEntered(), EventPattern.mouseExited()), e -> {
+                    InputFrameBuffer buffer = buffers.get(e.getSource());
+                    if(buffer != null) {
+                        buffer.resetMouse();
+                    }
+                    return Result.PROCEED;
+                });
+        @SuppressWarnings("unchecked")
+        InputMap<U> res = (InputMap<U>) InputMap.<Event>sequence(accumulate, crossing);
+        return res;
+    }
+
+    /**
+     * If the given {@link EventPattern} matches the given key pressed event, consumes it and tells auto-repeated
+     * presses (presses of a key that is still held down) from first presses. The action runs right away for a first
+     * press, with a count of 1, whereas the repeats that arrive within one JavaFX pulse are folded into a single
+     * run, at the next pulse, with the latest repeat and the number of repeats. When handling the presses is slower
+     * than the auto-repeat rate (e.g. moving the caret in a huge document), the handler can then do N steps in one
+     * update, and the caret stops as soon as the key is released instead of "overshooting":
+     *
+     * <pre><code>
+     * consumeKeyRepeats(keyPressed(DOWN), (e, count) -&gt; area.moveCaretDown(count))
+     * </code></pre>
+     *
+     * <p>The returned input map also observes (without consuming) key released events, which must not be
+     * consumed by earlier handlers. A node that loses the focus forgets the key held down, so the next press
+     * after it regains the focus is a first press.</p>
+     */
+    public static InputMap<KeyEvent> consumeKeyRepeats(
+            EventPattern<? super KeyEvent, ? extends KeyEvent> eventPattern,
+            ObjIntConsumer<? super KeyEvent> action) {
+        KeyRepeatCoalescer<Object> coalescer = new KeyRepeatCoalescer<>((node, latest, count) ->
+                InputMonitors.runDeferred(eventPattern, latest, e -> action.accept(e, count)));
+        // the focus of a node is only watched while a key is held down on it (the release then goes to the new focus
+        // owner), so that the listeners do not outlive the input map
+        Map<Node, ChangeListener<Boolean>> focusListeners = new HashMap<>();
+        Consumer<Node> unwatch = node -> {
+            ChangeListener<Boolean> listener = focusListeners.remove(node);
+            if(listener != null) {
+                node.focusedProperty().removeListener(listener);
+            }
+        };
+        return sequence(
+                process(EventPattern.keyReleased(), e -> {
+                    if(coalescer.released(e.getSource(), e) && e.getSource() instanceof Node) {
+                        unwatch.accept((Node) e.getSource());
+                    }
+                    return Result.PROCEED;
+                }),
+                process(eventPattern, e -> {
+                    Object source = e.getSource();
+                    if(coalescer.pressed(source, e)) {
+                        if(source instanceof Node) {
+                            focusListeners.computeIfAbsent((Node) source, node -> {
+                                ChangeListener<Boolean> listener = (obs, was, is) -> {
+                                    if(!is) {
+                                        coalescer.reset(node);
+                                        unwatch.accept(node);
+                                    }
+                                };
+                                node.focusedProperty().addListener(listener);
+                                return listener;
+                            });
+                        }
+                        action.accept(e, 1);
+                    }
+                    return Result.CONSUME;
+                }));
+    }
+
+    /**
+     * If the given {@link EventPattern} matches the given event type, consumes the event right away, but runs the
+     * given action only once no matching event has occurred on the same node for the given {@code quietPeriod},
+     * with the latest matching event (e.g. search-as-you-type, hover previews). All debounced bindings share a
+     * single pulse-driven timer wheel, rather than creating a {@link javafx.animation.Timeline} per node.
+     */
+    public static <T extends Event, U extends T> InputMap<U> debounce(
+            EventPattern<? super T, ? extends U> eventPattern,
+            Duration quietPeriod,
+            Consumer<? super U> action) {
+        Debouncer<Object, U> debouncer = new Debouncer<>(Durations.toNanos(quietPeriod),
+                (node, u) -> InputMonitors.runDeferred(eventPattern, u, action));
+        return process(eventPattern, u -> {
+            debouncer.offer(u.getSource(), u);
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * If the given {@link EventPattern} matches the given event type, consumes the event and runs the given
+     * action at most once per {@code interval} per node: the first matching event is handled immediately, and of
+     * the events that match during the interval, the latest one is handled when the interval ends (e.g. resizing
+     * by dragging). All throttled bindings share a single pulse-driven timer wheel.
+     */
+    public static <T extends Event, U extends T> InputMap<U> throttle(
+            EventPattern<? super T, ? extends U> eventPattern,
+            Duration interval,
+            Consumer<? super U> action) {
+        Throttler<Object, U> throttler = new Throttler<>(Durations.toNanos(interval),
+                (node, u) -> InputMonitors.runDeferred(eventPattern, u, action));
+        return process(eventPattern, u -> {
+            throttler.offer(u.getSource(), u);
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * If the given {@link EventPattern} matches the given event type, consumes the event right away and runs
+     * the {@link Callable} obtained from {@code work} on the given executor, off the JavaFX application thread.
+     * Its result is then passed, together with the event, to {@code onFx} on the JavaFX application thread. Keeps
+     * the application responsive while expensive bindings (e.g. re-indexing, formatting) run. Note that
+     * {@code work} itself is called on the JavaFX application thread, so it can read the state the
+     * {@link Callable} needs; the {@link Callable} must not touch the scene graph.
+     */
+    public static <T extends Event, U extends T, R> InputMap<U> consumeAsync(
+            EventPattern<? super T, ? extends U> eventPattern,
+            Function<? super U, ? extends Callable<? extends R>> work,
+            BiConsumer<? super U, ? super R> onFx,
+            Executor executor) {
+        return process(eventPattern, u -> {
+            AsyncHandlers.submit(work.apply(u), r -> onFx.accept(u, r), executor);
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * Same as {@link #consumeAsync(EventPattern, Function, BiConsumer, Executor)}, using virtual threads when
+     * the JDK supports them and a pool of daemon threads otherwise.
+     */
+    public static <T extends Event, U extends T, R> InputMap<U> consumeAsync(
+            EventPattern<? super T, ? extends U> eventPattern,
+            Function<? super U, ? extends Callable<? extends R>> work,
+            BiConsumer<? super U, ? super R> onFx) {
+        return consumeAsync(eventPattern, work, onFx, AsyncHandlers.defaultExecutor());
+    }
+
+    /**
+     * Like {@link #consumeAsync(EventPattern, Function, BiConsumer, Executor)}, but with "latest wins" semantics
+     * (e.g. search-as-you-type, live preview): at most one task is in flight per node. When an event matches
+     * while the task started by a previous event on the same node is still running, that task is cancelled
+     * (its thread is interrupted) and its result, if it still produces one, is dropped instead of being passed
+     * to {@code onFx}.
+     */
+    public static <T extends Event, U extends T, R> InputMap<U> consumeAsyncLatest(
+            EventPattern<? super T, ? extends U> eventPattern,
+            Function<? super U, ? extends Callable<? extends R>> work,
+            BiConsumer<? super U, ? super R> onFx,
+            Executor executor) {
+        LatestAsync<Object> latest = new LatestAsync<>();
+        return process(eventPattern, u -> {
+            latest.submit(u.getSource(), work.apply(u), r -> onFx.accept(u, r), executor);
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * Same as {@link #consumeAsyncLatest(EventPattern, Function, BiConsumer, Executor)}, using virtual threads
+     * when the JDK supports them and a pool of daemon threads otherwise.
+     */
+    public static <T extends Event, U extends T, R> InputMap<U> consumeAsyncLatest(
+            EventPattern<? super T, ? extends U> eventPattern,
+            Function<? super U, ? extends Callable<? extends R>> work,
+            BiConsumer<? super U, ? super R> onFx) {
+        return consumeAsyncLatest(eventPattern, work, onFx, AsyncHandlers.defaultExecutor());
+    }
+
+    /**
+     * Creates an InputMap that matches key pressed events against the given key sequences (e.g.
+     * {@code Ctrl+K Ctrl+C}) and runs the action of a sequence when its last stroke is pressed. Strokes that
+     * continue a sequence are consumed; other key presses proceed to the next {@code InputMap} (if one exists).
+     * Each node keeps its own position within the sequences. See {@link KeyChords}.
+     */
+    public static InputMap<KeyEvent> sequenceOf(KeyChords<? extends Consumer<? super KeyEvent>> chords) {
+        KeySequenceMatcher<Object, Consumer<? super KeyEvent>> matcher = new KeySequenceMatcher<>(
+                chords.getBindings(), Durations.toNanos(chords.getTimeout()));
+        return process(EventPattern.keyPressed(), e -> matcher.advance(e.getSource(), e, action -> action.accept(e)));
+    }
+
     /**
      * If the given {@link EventPattern} matches the given event type and {@code condition} is true,
      * consumes the event and does not attempt to match additional
@@ -328,7 +619,7 @@ public interface InputMap<E extends Event> {
             EventPattern<? super T, ? extends U> eventPattern,
             BooleanSupplier condition,
             Consumer<? super U> action) {
-        return consumeWhen(eventPattern, () -> !condition.getAsBoolean(), action);
+        return consumeWhen(eventPattern, Guard.not(condition), action);
     }
 
     /**
@@ -388,18 +679,68 @@ public interface InputMap<E extends Event> {
         };
     }
 
+    /**
+     * Like {@link #when(BooleanSupplier, InputMap)}, but instead of testing the condition on every event, the
+     * handlers of the given {@link InputMap} are only installed into the node (see {@link Nodes}) while the
+     * {@code condition} holds true; the node's handlers are reinstalled whenever the {@code condition} changes.
+     * A disabled input map thus costs nothing per event.
+     */
+    public static <T extends Event> InputMap<T> whenObservable(
+            ObservableValue<Boolean> condition, InputMap<T> im) {
+
+        return new InputMap<T>() {
+
+            @Override
+            public void forEachEventType(HandlerConsumer<? super T> f) {
+                InputMapDependencies.track(condition);
+                if(Boolean.TRUE.equals(condition.getValue())) {
+                    im.forEachEventType(f);
+                }
+            }
+        };
+    }
+
     /**
      * When the given {@code condition} is false, pattern matches the event with the given {@link InputMap} or
      * proceeds to the next {@code InputMap} (if it exists).
      */
     public static <T extends Event> InputMap<T> unless(
             BooleanSupplier condition, InputMap<T> im) {
-        return when(() -> !condition.getAsBoolean(), im);
+        return when(Guard.not(condition), im);
     }
 }
 
 class PatternActionMap<T extends Event, U extends T> implements InputMap<U> {
     static final Function<Object, Result> CONST_IGNORE = x -> Result.IGNORE;
+    static final Function<Object, Result> CONST_CONSUME = x -> Result.CONSUME;
+
+    /**
+     * Runs an action and consumes the event; equal to any other {@code ConsumeAction} of the same action, so that
+     * input maps created by separate {@code consume} calls with equal patterns and the same action are equal.
+     */
+    static final class ConsumeAction<U> implements Function<U, Result> {
+        private final Consumer<? super U> action;
+
+        ConsumeAction(Consumer<? super U> action) {
+            this.action = action;
+        }
+
+        @Override
+        public Result apply(U u) {
+            action.accept(u);
+            return Result.CONSUME;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ConsumeAction && action.equals(((ConsumeAction<?>) other).action);
+        }
+
+        @Override
+        public int hashCode() {
+            return action.hashCode();
+        }
+    }
 
     private final EventPattern<T, ? extends U> pattern;
     private final Function<? super U, InputHandler.Result> action;
@@ -411,8 +752,11 @@ class PatternActionMap<T extends Event, U extends T> implements InputMap<U> {
 
     @Override
     public void forEachEventType(HandlerConsumer<? super U> f) {
-        InputHandler<T> h = t -> pattern.match(t).map(action::apply).orElse(Result.PROCEED);
-        pattern.getEventTypes().forEach(et -> f.accept(et, h));
+        InputHandler<T> h = new PatternHandler<>(pattern, action);
+        pattern.getEventTypes().forEach(et -> {
+            PatternEventTypes.track(et);
+            f.accept(et, h);
+        });
     }
 
     @Override
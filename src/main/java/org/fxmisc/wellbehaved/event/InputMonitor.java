@@ -0,0 +1,58 @@
+package org.fxmisc.wellbehaved.event;
+
+import javafx.event.Event;
+import javafx.scene.Node;
+
+import org.fxmisc.wellbehaved.event.InputHandler.Result;
+
+/**
+ * Observes how installed {@link InputMap}s handle events and how they are installed into {@link Node}s. Useful
+ * for diagnostics (profilers, flight recorders, statistics). Monitors are registered globally via
+ * {@link Nodes#addInputMonitor(InputMonitor)}; when none is registered, dispatch incurs no monitoring cost.
+ *
+ * <p>All methods are called on the thread that dispatches the event or modifies the node (normally the JavaFX
+ * application thread) and should return quickly.</p>
+ *
+ * <p>Handlers that defer their action to a later pulse or timeout (e.g. {@link InputMap#coalesce}) are reported
+ * twice: once when they consume the event, and once more, with the event they run with, when the deferred
+ * action runs, so that the time spent in the action itself is measured.</p>
+ */
+public interface InputMonitor {
+
+    /**
+     * Called when the given {@code pattern} matched the given event, right before its handler runs.
+     */
+    default void handlerStarted(Event event, EventPattern<?, ?> pattern) {}
+
+    /**
+     * Called after the handler of the given {@code pattern} processed the given event.
+     *
+     * @param result what the handler returned
+     * @param nanos how long the handler took, in nanoseconds
+     */
+    default void handlerFinished(Event event, EventPattern<?, ?> pattern, Result result, long nanos) {}
+
+    /**
+     * Called instead of {@link #handlerFinished(Event, EventPattern, Result, long)} when the handler of the
+     * given {@code pattern} threw an exception. The exception is rethrown after all monitors have been notified.
+     */
+    default void handlerFailed(Event event, EventPattern<?, ?> pattern, Throwable exception) {}
+
+    /**
+     * Called after an {@link InputMap} was added to the given node (e.g. via {@link Nodes#addInputMap(Node, InputMap)}
+     * or {@link Nodes#pushInputMap(Node, InputMap)}).
+     *
+     * @param handlerCount number of event types for which the node now has handlers installed
+     * @param nanos how long it took to rebuild and install the node's handlers, in nanoseconds
+     */
+    default void inputMapInstalled(Node node, InputMap<?> inputMap, int handlerCount, long nanos) {}
+
+    /**
+     * Called after an {@link InputMap} was removed from the given node (e.g. via
+     * {@link Nodes#removeInputMap(Node, InputMap)} or {@link Nodes#popInputMap(Node)}).
+     *
+     * @param handlerCount number of event types for which the node now has handlers installed
+     * @param nanos how long it took to rebuild and install the node's handlers, in nanoseconds
+     */
+    default void inputMapUninstalled(Node node, InputMap<?> inputMap, int handlerCount, long nanos) {}
+}
@@ -0,0 +1,232 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+import javafx.beans.value.ChangeListener;
+import javafx.event.EventHandler;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.Window;
+
+/**
+ * The keys and mouse buttons currently held down in a {@link Scene} or a {@link Node}, for polling-style input
+ * (e.g. "is W held right now?" in a game loop), instead of maintaining a set of pressed keys with extra
+ * key pressed/released bindings:
+ *
+ * <pre><code>
+ * InputState input = InputState.of(scene);
+ * // in an AnimationTimer:
+ * if(input.isDown(KeyCode.W)) { moveForward(); }
+ * </code></pre>
+ *
+ * <p>The state is updated by event filters, so that events consumed by input maps are tracked as well,
+ * and kept in primitive bit sets: queries are constant-time and do not allocate. It is cleared when the
+ * focus leaves the node and its descendants, when the window loses the focus and when the node (resp. the
+ * scene) moves to another scene (resp. window), since the matching release events are then never
+ * delivered.</p>
+ *
+ * <p>Must only be used from the JavaFX application thread.</p>
+ */
+public final class InputState {
+
+    private static final String P_INPUTSTATE = "org.fxmisc.wellbehaved.event.inputstate";
+
+    private static final KeyCode[] KEY_CODES = KeyCode.values();
+    private static final MouseButton[] BUTTONS = MouseButton.values();
+
+    /**
+     * Returns the input state of the given scene, creating it on the first call.
+     */
+    public static InputState of(Scene scene) {
+        Object state = scene.getProperties().get(P_INPUTSTATE);
+        if(state == null) {
+            state = new InputState(scene);
+            scene.getProperties().put(P_INPUTSTATE, state);
+        }
+        return (InputState) state;
+    }
+
+    /**
+     * Returns the input state of the given node, creating it on the first call. Only the key events
+     * targeted at the node (i.e. while it, or one of its descendants, has the focus) and the mouse presses
+     * on the node are tracked.
+     */
+    public static InputState of(Node node) {
+        Object state = node.getProperties().get(P_INPUTSTATE);
+        if(state == null) {
+            state = new InputState(node);
+            node.getProperties().put(P_INPUTSTATE, state);
+        }
+        return (InputState) state;
+    }
+
+    private final long[] keys = new long[(KEY_CODES.length + 63) >>> 6];
+    private int buttons = 0;
+    private int keyCount = 0;
+
+    private final EventHandler<KeyEvent> onKey = this::onKey;
+    private final EventHandler<MouseEvent> onMouse = this::onMouse;
+    private final ChangeListener<Boolean> onFocus = (obs, was, is) -> { if(!is) clear(); };
+    private final ChangeListener<Window> onWindow = (obs, oldWindow, newWindow) -> {
+        if(oldWindow != null) {
+            oldWindow.focusedProperty().removeListener(onFocus);
+        }
+        if(newWindow != null) {
+            newWindow.focusedProperty().addListener(onFocus);
+        }
+        clear();
+    };
+    private final Runnable disposer;
+
+    private InputState(Node node) {
+        ChangeListener<Node> onFocusOwner = (obs, oldOwner, newOwner) -> {
+            if(!isInside(newOwner, node)) {
+                clear();
+            }
+        };
+        ChangeListener<Scene> onScene = (obs, oldScene, newScene) -> {
+            if(oldScene != null) {
+                oldScene.focusOwnerProperty().removeListener(onFocusOwner);
+                oldScene.windowProperty().removeListener(onWindow);
+                onWindow.changed(oldScene.windowProperty(), oldScene.getWindow(), null);
+            }
+            if(newScene != null) {
+                newScene.focusOwnerProperty().addListener(onFocusOwner);
+                newScene.windowProperty().addListener(onWindow);
+                onWindow.changed(newScene.windowProperty(), null, newScene.getWindow());
+            }
+            clear();
+        };
+        node.addEventFilter(KeyEvent.ANY, onKey);
+        node.addEventFilter(MouseEvent.ANY, onMouse);
+        node.sceneProperty().addListener(onScene);
+        onScene.changed(node.sceneProperty(), null, node.getScene());
+        disposer = () -> {
+            node.removeEventFilter(KeyEvent.ANY, onKey);
+            node.removeEventFilter(MouseEvent.ANY, onMouse);
+            node.sceneProperty().removeListener(onScene);
+            onScene.changed(node.sceneProperty(), node.getScene(), null);
+            node.getProperties().remove(P_INPUTSTATE);
+        };
+    }
+
+    private static boolean isInside(Node node, Node ancestor) {
+        for(Node n = node; n != null; n = n.getParent()) {
+            if(n == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private InputState(Scene scene) {
+        scene.addEventFilter(KeyEvent.ANY, onKey);
+        scene.addEventFilter(MouseEvent.ANY, onMouse);
+        scene.windowProperty().addListener(onWindow);
+        onWindow.changed(scene.windowProperty(), null, scene.getWindow());
+        disposer = () -> {
+            scene.removeEventFilter(KeyEvent.ANY, onKey);
+            scene.removeEventFilter(MouseEvent.ANY, onMouse);
+            scene.windowProperty().removeListener(onWindow);
+            onWindow.changed(scene.windowProperty(), scene.getWindow(), null);
+            scene.getProperties().remove(P_INPUTSTATE);
+        };
+    }
+
+    public boolean isDown(KeyCode code) {
+        int i = code.ordinal();
+        return (keys[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public boolean isDown(MouseButton button) {
+        return (buttons & (1 << button.ordinal())) != 0;
+    }
+
+    public boolean isAnyKeyDown() {
+        return keyCount > 0;
+    }
+
+    public boolean isAnyButtonDown() {
+        return buttons != 0;
+    }
+
+    /**
+     * Returns the number of keys currently held down.
+     */
+    public int getKeyDownCount() {
+        return keyCount;
+    }
+
+    /**
+     * Passes each key currently held down to the given handler, in {@link KeyCode} order.
+     */
+    public void forEachKeyDown(Consumer<? super KeyCode> handler) {
+        for(int w = 0; w < keys.length; ++w) {
+            for(long bits = keys[w]; bits != 0; bits &= bits - 1) {
+                handler.accept(KEY_CODES[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+    }
+
+    /**
+     * Forgets all keys and buttons held down; this is done automatically on focus loss.
+     */
+    public void clear() {
+        for(int w = 0; w < keys.length; ++w) {
+            keys[w] = 0;
+        }
+        keyCount = 0;
+        buttons = 0;
+    }
+
+    /**
+     * Stops tracking the input; a later call to {@code of} returns a new input state.
+     */
+    public void dispose() {
+        disposer.run();
+        clear();
+    }
+
+    private void onKey(KeyEvent e) {
+        if(e.getEventType() == KeyEvent.KEY_PRESSED) {
+            setKey(e.getCode().ordinal(), true);
+        } else if(e.getEventType() == KeyEvent.KEY_RELEASED) {
+            setKey(e.getCode().ordinal(), false);
+        }
+    }
+
+    private void setKey(int i, boolean down) {
+        long bit = 1L << i;
+        long word = keys[i >>> 6];
+        if(((word & bit) != 0) != down) {
+            keys[i >>> 6] = word ^ bit;
+            keyCount += down ? 1 : -1;
+        }
+    }
+
+    private void onMouse(MouseEvent e) {
+        if(e.getEventType() == MouseEvent.MOUSE_PRESSED || e.getEventType() == MouseEvent.MOUSE_RELEASED) {
+            // the event's button flags reflect the state after the press/release
+            buttons = (e.isPrimaryButtonDown() ? 1 << MouseButton.PRIMARY.ordinal() : 0)
+                    | (e.isSecondaryButtonDown() ? 1 << MouseButton.SECONDARY.ordinal() : 0)
+                    | (e.isMiddleButtonDown() ? 1 << MouseButton.MIDDLE.ordinal() : 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "InputState[", "]");
+        forEachKeyDown(code -> sj.add(code.toString()));
+        for(MouseButton button: BUTTONS) {
+            if(isDown(button)) {
+                sj.add(button.toString());
+            }
+        }
+        return sj.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.KeyCharacterCombination;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+
+import org.fxmisc.wellbehaved.event.internal.KeyCharacterCodes;
+import org.fxmisc.wellbehaved.event.internal.ModifierMask;
+
+/**
+ * The pattern of a key pressed/released event that matches a {@link KeyCharacterCombination}, with the
+ * character's key code taken from {@link KeyCharacterCodes} instead of being resolved on every event.
+ */
+final class KeyCharacterPattern implements EventPattern<Event, KeyEvent> {
+    private final EventType<KeyEvent> eventType;
+    private final KeyCharacterCombination combination;
+    private final ModifierMask modifiers;
+    private final Set<EventType<? extends KeyEvent>> eventTypes;
+
+    KeyCharacterPattern(EventType<KeyEvent> eventType, KeyCharacterCombination combination) {
+        this.eventType = eventType;
+        this.combination = combination;
+        this.modifiers = ModifierMask.of(combination);
+        this.eventTypes = Collections.singleton(eventType);
+    }
+
+    @Override
+    public Optional<KeyEvent> match(Event event) {
+        if(EventTypePattern.isSubtype(event.getEventType(), eventType)) {
+            KeyEvent e = (KeyEvent) event;
+            KeyCode code = e.getCode();
+            if(code != KeyCode.UNDEFINED
+                    && code == KeyCharacterCodes.get(combination.getCharacter())
+                    && modifiers.matches(e)) {
+                return Optional.of(e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Set<EventType<? extends KeyEvent>> getEventTypes() {
+        return eventTypes;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(other instanceof KeyCharacterPattern) {
+            KeyCharacterPattern that = (KeyCharacterPattern) other;
+            return this.eventType.equals(that.eventType)
+                && this.combination.getCharacter().equals(that.combination.getCharacter())
+                && this.modifiers.equals(that.modifiers);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventType, combination.getCharacter(), modifiers);
+    }
+
+    @Override
+    public String toString() {
+        return eventType.getName() + " " + combination.getName();
+    }
+}
@@ -0,0 +1,78 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import javafx.scene.input.KeyEvent;
+import javafx.util.Duration;
+
+/**
+ * A set of {@link KeySequence}s ("chords", such as {@code Ctrl+K Ctrl+C}) and the actions bound to them, to be
+ * turned into an {@link InputMap} via {@link InputMap#sequenceOf(KeyChords)} or into an
+ * {@link org.fxmisc.wellbehaved.event.template.InputMapTemplate} via
+ * {@link org.fxmisc.wellbehaved.event.template.InputMapTemplate#sequenceOf(KeyChords)}.
+ *
+ * <p>All the sequences are stored in one trie of key strokes, with a cursor per node (or per template target),
+ * so advancing to the next stroke costs O(1) regardless of how many sequences are bound. If the next stroke
+ * does not arrive within the timeout, the sequence is abandoned.</p>
+ *
+ * <pre><code>
+ * InputMap&lt;KeyEvent&gt; chords = InputMap.sequenceOf(KeyChords.forInputMap(Duration.seconds(2))
+ *         .bind("Shortcut+K Shortcut+C", e -&gt; commentSelection())
+ *         .bind("Shortcut+K Shortcut+U", e -&gt; uncommentSelection()));
+ * </code></pre>
+ *
+ * @param <A> type of the actions
+ */
+public final class KeyChords<A> {
+
+    /**
+     * Creates an empty set of key sequences whose actions take the event that completed the sequence.
+     */
+    public static KeyChords<Consumer<? super KeyEvent>> forInputMap(Duration timeout) {
+        return new KeyChords<>(timeout);
+    }
+
+    /**
+     * Creates an empty set of key sequences whose actions take the template's target and the event that
+     * completed the sequence.
+     */
+    public static <S> KeyChords<BiConsumer<? super S, ? super KeyEvent>> forTemplate(Duration timeout) {
+        return new KeyChords<>(timeout);
+    }
+
+    private final Duration timeout;
+    private final List<Map.Entry<KeySequence, A>> bindings = new ArrayList<>();
+
+    public KeyChords(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Binds the given sequence to the given action. A sequence cannot be a prefix of another bound sequence.
+     */
+    public KeyChords<A> bind(KeySequence sequence, A action) {
+        bindings.add(new SimpleImmutableEntry<>(sequence, action));
+        return this;
+    }
+
+    /**
+     * Shorthand for {@link #bind(KeySequence, Object) bind(KeySequence.parse(sequence), action)}
+     */
+    public KeyChords<A> bind(String sequence, A action) {
+        return bind(KeySequence.parse(sequence), action);
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public List<Map.Entry<KeySequence, A>> getBindings() {
+        return Collections.unmodifiableList(bindings);
+    }
+}
@@ -0,0 +1,78 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+
+import org.fxmisc.wellbehaved.event.internal.ModifierMask;
+
+/**
+ * The pattern of a key pressed/released event whose code is one of a set of codes, kept in an {@link EnumSet}
+ * (a bit set); equal to patterns of the same type, codes and modifiers.
+ */
+final class KeyCodeSetPattern implements EventPattern<Event, KeyEvent> {
+    private final EventType<KeyEvent> eventType;
+    private final EnumSet<KeyCode> codes;
+    private final ModifierMask modifiers;
+    private final Set<EventType<? extends KeyEvent>> eventTypes;
+    private final Optional<EventAttribute.Test<?>> attributeTest;
+
+    KeyCodeSetPattern(EventType<KeyEvent> eventType, Set<KeyCode> codes, KeyCombination.Modifier... modifiers) {
+        this.eventType = eventType;
+        this.codes = codes.isEmpty() ? EnumSet.noneOf(KeyCode.class) : EnumSet.copyOf(codes);
+        this.modifiers = ModifierMask.of(new GenericKeyCombination(e -> true, modifiers));
+        this.eventTypes = Collections.singleton(eventType);
+        this.attributeTest = Optional.of(EventAttribute.KEY_CODE.isAnyOf(this.codes));
+    }
+
+    @Override
+    public Optional<KeyEvent> match(Event event) {
+        if(EventTypePattern.isSubtype(event.getEventType(), eventType)) {
+            KeyEvent e = (KeyEvent) event;
+            if(codes.contains(e.getCode()) && modifiers.matches(e)) {
+                return Optional.of(e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Set<EventType<? extends KeyEvent>> getEventTypes() {
+        return eventTypes;
+    }
+
+    @Override
+    public Optional<EventAttribute.Test<?>> getAttributeTest() {
+        return attributeTest;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(other instanceof KeyCodeSetPattern) {
+            KeyCodeSetPattern that = (KeyCodeSetPattern) other;
+            return this.eventType.equals(that.eventType)
+                && this.codes.equals(that.codes)
+                && this.modifiers.equals(that.modifiers);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventType, codes, modifiers);
+    }
+
+    @Override
+    public String toString() {
+        return eventType.getName() + " " + codes;
+    }
+}
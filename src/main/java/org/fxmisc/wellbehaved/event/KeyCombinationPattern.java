@@ -0,0 +1,63 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+
+/**
+ * The pattern of a key event of a given type that matches a {@link KeyCombination} other than a key code or key
+ * character one (those are {@link KeyStroke}s and {@link KeyCharacterPattern}s); equal to patterns of the same
+ * type and an equal combination.
+ */
+final class KeyCombinationPattern implements EventPattern<Event, KeyEvent> {
+    private final EventType<KeyEvent> eventType;
+    private final KeyCombination combination;
+    private final Set<EventType<? extends KeyEvent>> eventTypes;
+
+    KeyCombinationPattern(EventType<KeyEvent> eventType, KeyCombination combination) {
+        this.eventType = eventType;
+        this.combination = combination;
+        this.eventTypes = Collections.singleton(eventType);
+    }
+
+    @Override
+    public Optional<KeyEvent> match(Event event) {
+        if(EventTypePattern.isSubtype(event.getEventType(), eventType) && combination.match((KeyEvent) event)) {
+            return Optional.of((KeyEvent) event);
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Set<EventType<? extends KeyEvent>> getEventTypes() {
+        return eventTypes;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(other instanceof KeyCombinationPattern) {
+            KeyCombinationPattern that = (KeyCombinationPattern) other;
+            return this.eventType.equals(that.eventType)
+                && this.combination.equals(that.combination);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventType, combination);
+    }
+
+    @Override
+    public String toString() {
+        return eventType.getName() + " " + combination;
+    }
+}
@@ -0,0 +1,89 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyCombination.ModifierValue;
+
+/**
+ * A sequence of key strokes that has to be pressed one after another, e.g. {@code Ctrl+K Ctrl+C} (a "chord").
+ * Each stroke is a {@link KeyCodeCombination} whose modifiers are either down or up (not "any").
+ * Key sequences are bound to actions via {@link KeyChords}.
+ */
+public final class KeySequence {
+
+    /**
+     * Creates a key sequence from the given strokes.
+     */
+    public static KeySequence of(KeyCodeCombination... strokes) {
+        return new KeySequence(Arrays.asList(strokes.clone()));
+    }
+
+    /**
+     * Parses a key sequence of whitespace-separated strokes, each of which is in the format accepted by
+     * {@link KeyCombination#valueOf(String)}, e.g. {@code "Shortcut+K Shortcut+C"}.
+     */
+    public static KeySequence parse(String sequence) {
+        List<KeyCodeCombination> strokes = new ArrayList<>();
+        for(String s: sequence.trim().split("\\s+")) {
+            KeyCombination kc = KeyCombination.valueOf(s);
+            if(!(kc instanceof KeyCodeCombination)) {
+                throw new IllegalArgumentException("Not a key code combination: " + s);
+            }
+            strokes.add((KeyCodeCombination) kc);
+        }
+        return new KeySequence(strokes);
+    }
+
+    private final List<KeyCodeCombination> strokes;
+
+    private KeySequence(List<KeyCodeCombination> strokes) {
+        if(strokes.isEmpty()) {
+            throw new IllegalArgumentException("A key sequence needs at least one stroke");
+        }
+        for(KeyCodeCombination stroke: strokes) {
+            ModifierValue[] mods = { stroke.getShift(), stroke.getControl(), stroke.getAlt(),
+                    stroke.getMeta(), stroke.getShortcut() };
+            for(ModifierValue mod: mods) {
+                if(mod == ModifierValue.ANY) {
+                    throw new IllegalArgumentException("Modifiers of key sequences cannot be ANY: " + stroke);
+                }
+            }
+        }
+        this.strokes = Collections.unmodifiableList(strokes);
+    }
+
+    public List<KeyCodeCombination> getStrokes() {
+        return strokes;
+    }
+
+    public int length() {
+        return strokes.size();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof KeySequence && strokes.equals(((KeySequence) other).strokes);
+    }
+
+    @Override
+    public int hashCode() {
+        return strokes.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for(KeyCodeCombination stroke: strokes) {
+            if(sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(stroke.getName());
+        }
+        return sb.toString();
+    }
+}
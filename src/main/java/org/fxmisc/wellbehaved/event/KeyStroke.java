@@ -0,0 +1,111 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+
+import org.fxmisc.wellbehaved.event.internal.ModifierMask;
+
+/**
+ * The pattern of a key event of a given type (e.g. {@link KeyEvent#KEY_PRESSED}) with a given key code and
+ * modifiers, as returned by {@link EventPattern#keyPressed(KeyCode, KeyCombination.Modifier...)} and
+ * {@link EventPattern#keyReleased(KeyCode, KeyCombination.Modifier...)}.
+ *
+ * <p>Key strokes are interned flyweights: creating the same key stroke (same event type, code and modifiers)
+ * in many places yields the same instance, so a binding shared by many controls costs one object and input maps
+ * built from equal key strokes are equal (which makes {@link Nodes#removeInputMap(javafx.scene.Node, InputMap)}
+ * reliable for them).</p>
+ */
+public final class KeyStroke implements EventPattern<Event, KeyEvent> {
+
+    private static final Map<KeyStroke, KeyStroke> CACHE = new ConcurrentHashMap<>();
+
+    public static KeyStroke of(EventType<KeyEvent> eventType, KeyCode code, KeyCombination.Modifier... modifiers) {
+        return of(eventType, new KeyCodeCombination(code, modifiers));
+    }
+
+    public static KeyStroke of(EventType<KeyEvent> eventType, KeyCodeCombination combination) {
+        KeyStroke keyStroke = new KeyStroke(eventType, combination);
+        KeyStroke interned = CACHE.putIfAbsent(keyStroke, keyStroke);
+        return interned != null ? interned : keyStroke;
+    }
+
+    private final EventType<KeyEvent> eventType;
+    private final KeyCodeCombination combination;
+    private final ModifierMask modifiers;
+    private final Set<EventType<? extends KeyEvent>> eventTypes;
+    private final Optional<EventAttribute.Test<?>> attributeTest;
+
+    private KeyStroke(EventType<KeyEvent> eventType, KeyCodeCombination combination) {
+        this.eventType = eventType;
+        this.combination = combination;
+        this.modifiers = ModifierMask.of(combination);
+        this.eventTypes = Collections.singleton(eventType);
+        this.attributeTest = Optional.of(EventAttribute.KEY_CODE.is(combination.getCode()));
+    }
+
+    public EventType<KeyEvent> getEventType() {
+        return eventType;
+    }
+
+    public KeyCode getCode() {
+        return combination.getCode();
+    }
+
+    public KeyCodeCombination getCombination() {
+        return combination;
+    }
+
+    @Override
+    public Optional<KeyEvent> match(Event event) {
+        if(EventTypePattern.isSubtype(event.getEventType(), eventType)) {
+            KeyEvent e = (KeyEvent) event;
+            if(e.getCode() == combination.getCode() && modifiers.matches(e)) {
+                return Optional.of(e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Set<EventType<? extends KeyEvent>> getEventTypes() {
+        return eventTypes;
+    }
+
+    @Override
+    public Optional<EventAttribute.Test<?>> getAttributeTest() {
+        return attributeTest;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(other instanceof KeyStroke) {
+            KeyStroke that = (KeyStroke) other;
+            return this.eventType.equals(that.eventType)
+                && this.combination.getCode() == that.combination.getCode()
+                && this.modifiers.equals(that.modifiers);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventType, combination.getCode(), modifiers);
+    }
+
+    @Override
+    public String toString() {
+        return eventType.getName() + " " + combination.getName();
+    }
+}
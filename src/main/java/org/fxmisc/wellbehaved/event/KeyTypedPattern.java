@@ -0,0 +1,73 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+
+import org.fxmisc.wellbehaved.event.internal.ModifierMask;
+
+/**
+ * The pattern of a {@link KeyEvent#KEY_TYPED} event of a given character and modifiers; equal to patterns of the
+ * same character and modifiers.
+ */
+final class KeyTypedPattern implements EventPattern<Event, KeyEvent> {
+    private static final Set<EventType<? extends KeyEvent>> EVENT_TYPES = Collections.singleton(KeyEvent.KEY_TYPED);
+
+    private final String character;
+    private final ModifierMask modifiers;
+    private final Optional<EventAttribute.Test<?>> attributeTest;
+
+    KeyTypedPattern(String character, KeyCombination.Modifier... modifiers) {
+        this.character = character;
+        this.modifiers = ModifierMask.of(new GenericKeyCombination(e -> true, modifiers));
+        this.attributeTest = Optional.of(EventAttribute.CHARACTER.is(character));
+    }
+
+    @Override
+    public Optional<KeyEvent> match(Event event) {
+        if(EventTypePattern.isSubtype(event.getEventType(), KeyEvent.KEY_TYPED)) {
+            KeyEvent e = (KeyEvent) event;
+            if(character.equals(e.getCharacter()) && modifiers.matches(e)) {
+                return Optional.of(e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Set<EventType<? extends KeyEvent>> getEventTypes() {
+        return EVENT_TYPES;
+    }
+
+    @Override
+    public Optional<EventAttribute.Test<?>> getAttributeTest() {
+        return attributeTest;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(other instanceof KeyTypedPattern) {
+            KeyTypedPattern that = (KeyTypedPattern) other;
+            return this.character.equals(that.character)
+                && this.modifiers.equals(that.modifiers);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(character, modifiers);
+    }
+
+    @Override
+    public String toString() {
+        return KeyEvent.KEY_TYPED.getName() + " \"" + character + "\"";
+    }
+}
@@ -0,0 +1,86 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+
+import org.fxmisc.wellbehaved.event.internal.ModifierMask;
+
+/**
+ * The pattern of a {@link KeyEvent#KEY_TYPED} event whose character is in a {@link CharRange}; equal to patterns
+ * of the same range and modifiers.
+ */
+final class KeyTypedRangePattern implements EventPattern<Event, KeyEvent> {
+    private static final Set<EventType<? extends KeyEvent>> EVENT_TYPES = Collections.singleton(KeyEvent.KEY_TYPED);
+
+    /** Larger ranges are not worth expanding into decision tree entries */
+    private static final int MAX_INDEXED_SIZE = 256;
+
+    private final CharRange range;
+    private final ModifierMask modifiers;
+    private final Optional<EventAttribute.Test<?>> attributeTest;
+
+    KeyTypedRangePattern(CharRange range, KeyCombination.Modifier... modifiers) {
+        this.range = range;
+        this.modifiers = ModifierMask.of(new GenericKeyCombination(e -> true, modifiers));
+        if(range.size() <= MAX_INDEXED_SIZE) {
+            List<String> chars = new ArrayList<>();
+            for(char c: range.toCharArray()) {
+                chars.add(String.valueOf(c));
+            }
+            this.attributeTest = Optional.of(EventAttribute.CHARACTER.isAnyOf(chars));
+        } else {
+            this.attributeTest = Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<KeyEvent> match(Event event) {
+        if(EventTypePattern.isSubtype(event.getEventType(), KeyEvent.KEY_TYPED)) {
+            KeyEvent e = (KeyEvent) event;
+            if(range.containsCharacter(e.getCharacter()) && modifiers.matches(e)) {
+                return Optional.of(e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Set<EventType<? extends KeyEvent>> getEventTypes() {
+        return EVENT_TYPES;
+    }
+
+    @Override
+    public Optional<EventAttribute.Test<?>> getAttributeTest() {
+        return attributeTest;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(other instanceof KeyTypedRangePattern) {
+            KeyTypedRangePattern that = (KeyTypedRangePattern) other;
+            return this.range.equals(that.range)
+                && this.modifiers.equals(that.modifiers);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(range, modifiers);
+    }
+
+    @Override
+    public String toString() {
+        return KeyEvent.KEY_TYPED.getName() + " " + range;
+    }
+}
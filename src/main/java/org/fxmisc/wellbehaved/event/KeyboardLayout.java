@@ -0,0 +1,21 @@
+package org.fxmisc.wellbehaved.event;
+
+import org.fxmisc.wellbehaved.event.internal.KeyCharacterCodes;
+
+/**
+ * Patterns of key pressed/released events for a character (e.g. {@link EventPattern#keyPressed(String,
+ * javafx.scene.input.KeyCombination.Modifier...)}) cache which key produces the character on the current
+ * keyboard layout. JavaFX does not report layout changes, so applications that let the user switch layouts
+ * while running should call {@link #changed()} when that happens.
+ */
+public final class KeyboardLayout {
+
+    private KeyboardLayout() {}
+
+    /**
+     * Discards the cached character-to-key mappings; they are resolved again on the layout in effect.
+     */
+    public static void changed() {
+        KeyCharacterCodes.invalidate();
+    }
+}
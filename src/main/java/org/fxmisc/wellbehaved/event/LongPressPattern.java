@@ -0,0 +1,46 @@
+package org.fxmisc.wellbehaved.event;
+
+import static javafx.scene.input.MouseEvent.*;
+import static org.fxmisc.wellbehaved.event.MouseGestures.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.util.Duration;
+
+import org.fxmisc.wellbehaved.event.internal.Durations;
+
+/**
+ * Recognizes a press of a mouse button held, without moving, for a given duration; see
+ * {@link EventPattern#mouseLongPressed(MouseButton, Duration)}.
+ */
+final class LongPressPattern extends GesturePattern {
+    private final long delayNanos;
+
+    LongPressPattern(MouseButton button, Duration duration) {
+        super(button, MOUSE_LONG_PRESSED, new HashSet<>(Arrays.asList(MOUSE_PRESSED, MOUSE_DRAGGED, MOUSE_RELEASED)));
+        this.delayNanos = Durations.toNanos(duration);
+    }
+
+    @Override
+    void update(State s, MouseEvent e) {
+        if(e.getEventType() == MOUSE_PRESSED) {
+            if(e.getButton() == button) {
+                s.pressX = e.getScreenX();
+                s.pressY = e.getScreenY();
+                schedule(s, e, delayNanos);
+            } else {
+                s.cancel();
+            }
+        } else if(e.getEventType() == MOUSE_RELEASED || s.movedBeyond(e, MOVE_TOLERANCE)) {
+            s.cancel();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MOUSE_LONG_PRESSED.getName() + " " + button;
+    }
+}
@@ -0,0 +1,68 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+
+/**
+ * The pattern of a mouse event of a given type and button; equal to patterns of the same type and button.
+ */
+final class MouseButtonPattern implements EventPattern<Event, MouseEvent> {
+    private final EventType<MouseEvent> eventType;
+    private final MouseButton button;
+    private final Set<EventType<? extends MouseEvent>> eventTypes;
+    private final Optional<EventAttribute.Test<?>> attributeTest;
+
+    MouseButtonPattern(EventType<MouseEvent> eventType, MouseButton button) {
+        this.eventType = eventType;
+        this.button = button;
+        this.eventTypes = Collections.singleton(eventType);
+        this.attributeTest = Optional.of(EventAttribute.MOUSE_BUTTON.is(button));
+    }
+
+    @Override
+    public Optional<MouseEvent> match(Event event) {
+        if(EventTypePattern.isSubtype(event.getEventType(), eventType) && ((MouseEvent) event).getButton() == button) {
+            return Optional.of((MouseEvent) event);
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Set<EventType<? extends MouseEvent>> getEventTypes() {
+        return eventTypes;
+    }
+
+    @Override
+    public Optional<EventAttribute.Test<?>> getAttributeTest() {
+        return attributeTest;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(other instanceof MouseButtonPattern) {
+            MouseButtonPattern that = (MouseButtonPattern) other;
+            return this.eventType.equals(that.eventType)
+                && this.button == that.button;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventType, button);
+    }
+
+    @Override
+    public String toString() {
+        return eventType.getName() + " " + button;
+    }
+}
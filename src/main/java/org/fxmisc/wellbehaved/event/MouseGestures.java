@@ -0,0 +1,35 @@
+package org.fxmisc.wellbehaved.event;
+
+import javafx.event.EventType;
+import javafx.scene.input.MouseEvent;
+import javafx.util.Duration;
+
+/**
+ * Types of the mouse events synthesized by the gesture patterns of {@link EventPattern}, such as
+ * {@link EventPattern#mouseLongPressed(javafx.scene.input.MouseButton, Duration)}. These events are
+ * copies of the mouse event that started the gesture, fired on the node when the gesture is recognized.
+ */
+public final class MouseGestures {
+
+    /** The mouse button was held down, without moving, for the long press duration */
+    public static final EventType<MouseEvent> MOUSE_LONG_PRESSED =
+            new EventType<>(MouseEvent.ANY, "MOUSE_LONG_PRESSED");
+
+    /** The mouse button was clicked once and not clicked again within the multi-click interval */
+    public static final EventType<MouseEvent> MOUSE_SINGLE_CLICKED =
+            new EventType<>(MouseEvent.ANY, "MOUSE_SINGLE_CLICKED");
+
+    /**
+     * Default interval within which a click must follow the previous one to count as a multi-click. JavaFX does
+     * not expose the platform's double-click time, so this is the common desktop default; pass the interval
+     * explicitly to {@link EventPattern#mouseSingleClicked(javafx.scene.input.MouseButton, Duration)} to match a
+     * different platform setting, since a longer platform setting lets a late second click arrive with a click
+     * count of 2 after the single click has already been fired.
+     */
+    public static final Duration DEFAULT_MULTI_CLICK_INTERVAL = Duration.millis(500);
+
+    /** Distance (in pixels) the mouse may move during a long press or a click without cancelling it */
+    static final double MOVE_TOLERANCE = 5;
+
+    private MouseGestures() {}
+}
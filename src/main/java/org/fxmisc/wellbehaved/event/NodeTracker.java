@@ -0,0 +1,42 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javafx.event.EventType;
+import javafx.scene.Node;
+
+/**
+ * Something that must run on each node whose input map uses it, such as the event filters that follow the mouse
+ * for hover events or gesture patterns. It is found through the event types of the input map's handlers:
+ * {@link Nodes} starts it on the node when it installs an input map with a handler of one of its types (once,
+ * however many such handlers there are) and stops it when the installed input map no longer has any.
+ */
+abstract class NodeTracker {
+
+    // the trackers are kept alive by their patterns, not by this registry
+    private static final Map<EventType<?>, WeakReference<NodeTracker>> TRACKERS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Returns the tracker of the given event type, or null if it has none.
+     */
+    static NodeTracker of(EventType<?> eventType) {
+        WeakReference<NodeTracker> ref = TRACKERS.get(eventType);
+        return ref == null ? null : ref.get();
+    }
+
+    /**
+     * Makes the nodes with handlers of the given event type, which must not be a public type, start this tracker.
+     */
+    final void trackWith(EventType<?> eventType) {
+        TRACKERS.put(eventType, new WeakReference<>(this));
+    }
+
+    /**
+     * Starts tracking the given node and returns the action that stops it.
+     */
+    abstract Runnable start(Node node);
+}
@@ -2,19 +2,33 @@ package org.fxmisc.wellbehaved.event;
 
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.Stack;
+import java.util.function.Consumer;
 
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.beans.value.WeakChangeListener;
 import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableMap;
 import javafx.event.Event;
 import javafx.event.EventHandler;
 import javafx.event.EventType;
 import javafx.scene.Node;
+import javafx.scene.input.InputEvent;
+import javafx.util.Duration;
 
 import org.fxmisc.wellbehaved.event.InputMap.HandlerConsumer;
+import org.fxmisc.wellbehaved.event.internal.Durations;
+import org.fxmisc.wellbehaved.event.internal.InputMapDependencies;
+import org.fxmisc.wellbehaved.event.internal.InputMonitors;
+import org.fxmisc.wellbehaved.event.internal.PatternEventTypes;
 
 /**
  * Helper class for "installing/uninstalling" an {@link InputMap} into a {@link Node}.
@@ -29,12 +43,20 @@ import org.fxmisc.wellbehaved.event.InputMap.HandlerConsumer;
  *         To add an {@code InputMap} that might override default behaviors, use {@link #addInputMap(Node, InputMap)}.
  *     </li>
  *     <li>
+ *         To process the input once per frame instead of once per event (e.g. in games), use
+ *         {@link #addPerFrameInputMap(Node, EventPattern, Consumer)}.
+ *     </li>
+ *     <li>
  *         To remove an {@code InputMap}, use {@link #removeInputMap(Node, InputMap)}.
  *     </li>
  *     <li>
  *         See also {@link #pushInputMap(Node, InputMap)} and {@link #popInputMap(Node)} for temporary behavior
  *         modification.
  *     </li>
+ *     <li>
+ *         To observe event handling and installation for diagnostics, see {@link #addInputMonitor(InputMonitor)};
+ *         to find handlers that block the JavaFX application thread, see {@link #enableWatchdog(Duration, Consumer)}.
+ *     </li>
  * </ul>
  */
 public class Nodes {
@@ -42,6 +64,10 @@ public class Nodes {
     private static final String P_INPUTMAP = "org.fxmisc.wellbehaved.event.inputmap";
     private static final String P_HANDLERS = "org.fxmisc.wellbehaved.event.handlers";
     private static final String P_STACK    = "org.fxmisc.wellbehaved.event.stack";
+    private static final String P_DEPENDENCIES = "org.fxmisc.wellbehaved.event.dependencies";
+    private static final String P_TRACKERS = "org.fxmisc.wellbehaved.event.trackers";
+
+    private static HandlerWatchdog watchdog = null;
 
     /**
      * Adds the given input map to the start of the node's list of input maps, so that an event will be pattern-matched
@@ -50,7 +76,8 @@ public class Nodes {
      */
     public static void addInputMap(Node node, InputMap<?> im) {
         // getInputMap calls init, so can use unsafe setter
-        setInputMapUnsafe(node, InputMap.sequence(im, getInputMap(node)));
+        long nanos = setInputMapUnsafe(node, InputMap.sequence(im, getInputMap(node)));
+        InputMonitors.installed(node, im, getHandlers(node).size(), nanos);
     }
 
     /**
@@ -60,7 +87,25 @@ public class Nodes {
      */
     public static void addFallbackInputMap(Node node, InputMap<?> im) {
         // getInputMap calls init, so can use unsafe setter
-        setInputMapUnsafe(node, InputMap.sequence(getInputMap(node), im));
+        long nanos = setInputMapUnsafe(node, InputMap.sequence(getInputMap(node), im));
+        InputMonitors.installed(node, im, getHandlers(node).size(), nanos);
+    }
+
+    /**
+     * Per-frame input mode: adds an input map to the start of the node's list of input maps (like
+     * {@link #addInputMap(Node, InputMap)}) that consumes the events matched by the given pattern and delivers them
+     * to {@code onFrame} accumulated into one {@link InputFrame} per JavaFX pulse, instead of one callback per event.
+     * Returns the added input map, so that it can be removed with {@link #removeInputMap(Node, InputMap)}.
+     *
+     * @see InputMap#consumePerFrame(EventPattern, Consumer)
+     */
+    public static InputMap<?> addPerFrameInputMap(
+            Node node,
+            EventPattern<? super InputEvent, ? extends InputEvent> eventPattern,
+            Consumer<? super InputFrame> onFrame) {
+        InputMap<?> im = InputMap.consumePerFrame(eventPattern, onFrame);
+        addInputMap(node, im);
+        return im;
     }
 
     /**
@@ -68,7 +113,8 @@ public class Nodes {
      */
     public static void removeInputMap(Node node, InputMap<?> im) {
         // getInputMap calls init, so can use unsafe setter
-        setInputMapUnsafe(node, getInputMap(node).without(im));
+        long nanos = setInputMapUnsafe(node, getInputMap(node).without(im));
+        InputMonitors.uninstalled(node, im, getHandlers(node).size(), nanos);
     }
 
     /**
@@ -91,7 +137,8 @@ public class Nodes {
         getStack(node).push(previousInputMap);
 
         // completely override the previous one with the given one
-        setInputMapUnsafe(node, im);
+        long nanos = setInputMapUnsafe(node, im);
+        InputMonitors.installed(node, im, getHandlers(node).size(), nanos);
     }
 
     /**
@@ -104,13 +151,54 @@ public class Nodes {
         if (!stackedInputMaps.isEmpty()) {
             // If stack is not empty, node has already been initialized, so can use unsafe methods.
             // Now, completely override current input map with previous one on stack
-            setInputMapUnsafe(node, stackedInputMaps.pop());
+            InputMap<?> poppedInputMap = getInputMapUnsafe(node);
+            long nanos = setInputMapUnsafe(node, stackedInputMaps.pop());
+            InputMonitors.uninstalled(node, poppedInputMap, getHandlers(node).size(), nanos);
             return true;
         } else {
             return false;
         }
     }
 
+    /**
+     * Registers the given monitor, so that it is notified of all pattern-based event handling and of all
+     * {@link InputMap} (un)installations done through this class.
+     */
+    public static void addInputMonitor(InputMonitor monitor) {
+        InputMonitors.add(monitor);
+    }
+
+    /**
+     * Unregisters a monitor previously registered via {@link #addInputMonitor(InputMonitor)}.
+     */
+    public static void removeInputMonitor(InputMonitor monitor) {
+        InputMonitors.remove(monitor);
+    }
+
+    /**
+     * Enables the frame-budget watchdog: every pattern-based handler running on the JavaFX application thread
+     * is timed against the given {@code budget} (e.g. 4 ms) and when one exceeds it, the application thread's
+     * stack is sampled from a background thread and passed to {@code reporter} together with the offending
+     * pattern and event. The {@code reporter} is called on the background thread. Handlers that stay under the
+     * budget incur negligible overhead. Replaces a previously enabled watchdog.
+     */
+    public static synchronized void enableWatchdog(Duration budget, Consumer<? super SlowHandlerReport> reporter) {
+        disableWatchdog();
+        watchdog = new HandlerWatchdog(Durations.toNanos(budget), reporter);
+        addInputMonitor(watchdog);
+    }
+
+    /**
+     * Disables the watchdog enabled via {@link #enableWatchdog(Duration, Consumer)}, if any.
+     */
+    public static synchronized void disableWatchdog() {
+        if(watchdog != null) {
+            removeInputMonitor(watchdog);
+            watchdog.shutdown();
+            watchdog = null;
+        }
+    }
+
     /**
      *
      * @param node
@@ -121,19 +209,36 @@ public class Nodes {
 
             nodeProperties.put(P_INPUTMAP, InputMap.empty());
             nodeProperties.put(P_HANDLERS, new ArrayList<Map.Entry<?, ?>>());
+            nodeProperties.put(P_TRACKERS, new HashMap<NodeTracker, Runnable>());
 
             MapChangeListener<Object, Object> listener = ch -> {
                 if(!P_INPUTMAP.equals(ch.getKey())) {
                     return;
                 }
 
-                getHandlers(node).forEach(entry -> {
-                    node.removeEventHandler(entry.getKey(), (EventHandler<Event>) entry.getValue());
-                });
+                installHandlers(node, (InputMap<?>) ch.getValueAdded());
+            };
+            nodeProperties.addListener(listener);
+        }
+    }
 
-                getHandlers(node).clear();
+    /**
+     * Replaces the node's handlers with those of the given input map. If the input map depends on observables
+     * (see {@link InputMap#whenObservable(ObservableValue, InputMap)}), the handlers are reinstalled whenever
+     * one of them changes. Region events (see {@link RegionEvent}) are fired by translating the node's mouse events,
+     * so the translators are installed too, after the input map's own handlers. The trackers of the event types
+     * of the input map's patterns (see {@link NodeTracker}) are started, or stopped when no longer used.
+     */
+    private static void installHandlers(Node node, InputMap<?> inputMap) {
+        getHandlers(node).forEach(entry -> {
+            node.removeEventHandler(entry.getKey(), (EventHandler<Event>) entry.getValue());
+        });
 
-                InputMap<?> inputMap = (InputMap<?>) ch.getValueAdded();
+        getHandlers(node).clear();
+
+        Set<EventType<?>> patternTypes = new LinkedHashSet<>();
+        List<ObservableValue<?>> dependencies = InputMapDependencies.collect(() ->
+            patternTypes.addAll(PatternEventTypes.collect(() ->
                 inputMap.forEachEventType(new HandlerConsumer<Event>() {
 
                     @Override
@@ -141,15 +246,67 @@ public class Nodes {
                             EventType<? extends E> t, InputHandler<? super E> h) {
                         node.addEventHandler(t, h);
                         getHandlers(node).add(new SimpleEntry<>(t, h));
-                    }});
-            };
-            nodeProperties.addListener(listener);
+                    }}))));
+
+        Set<NodeTracker> trackers = new HashSet<>();
+        for(EventType<?> t: patternTypes) {
+            RegionEventSource<?> source = RegionEventSource.of(t);
+            if(source != null && !source.isHover()) {
+                node.addEventHandler(source.getMouseType(), source.getTranslator());
+                getHandlers(node).add(new SimpleEntry<>(source.getMouseType(), source.getTranslator()));
+            }
+            NodeTracker tracker = NodeTracker.of(t);
+            if(tracker != null) {
+                trackers.add(tracker);
+            }
+        }
+        Map<NodeTracker, Runnable> started = getTrackers(node);
+        started.entrySet().removeIf(entry -> {
+            boolean unused = !trackers.contains(entry.getKey());
+            if(unused) {
+                entry.getValue().run();
+            }
+            return unused;
+        });
+        trackers.forEach(tracker -> started.computeIfAbsent(tracker, t -> t.start(node)));
+
+        ObservableMap<Object, Object> nodeProperties = getProperties(node);
+        Dependencies previous = (Dependencies) nodeProperties.remove(P_DEPENDENCIES);
+        if(previous != null) {
+            previous.observables.forEach(o -> o.removeListener(previous.weakListener));
+        }
+        if(!dependencies.isEmpty()) {
+            // the node's properties keep the listener alive; the observables only reference it weakly
+            Dependencies deps = new Dependencies(dependencies, (obs, oldVal, newVal) -> {
+                if(getInputMapUnsafe(node) == inputMap) {
+                    installHandlers(node, inputMap);
+                }
+            });
+            dependencies.forEach(o -> o.addListener(deps.weakListener));
+            nodeProperties.put(P_DEPENDENCIES, deps);
         }
     }
 
-    /** Expects a {@link #init(Node)} call with the given node before this one is called */
-    private static void setInputMapUnsafe(Node node, InputMap<?> im) {
+    private static final class Dependencies {
+        final List<ObservableValue<?>> observables;
+        final ChangeListener<Object> listener;
+        final WeakChangeListener<Object> weakListener;
+
+        Dependencies(List<ObservableValue<?>> observables, ChangeListener<Object> listener) {
+            this.observables = observables;
+            this.listener = listener;
+            this.weakListener = new WeakChangeListener<>(listener);
+        }
+    }
+
+    /**
+     * Expects a {@link #init(Node)} call with the given node before this one is called.
+     * Returns the time it took to rebuild the node's handlers, in nanoseconds.
+     */
+    private static long setInputMapUnsafe(Node node, InputMap<?> im) {
+        long start = System.nanoTime();
         getProperties(node).put(P_INPUTMAP, im);
+        return System.nanoTime() - start;
     }
 
     /** Expects a {@link #init(Node)} call with the given node before this one is called */
@@ -161,6 +318,10 @@ public class Nodes {
         return (List<Entry<EventType<?>, EventHandler<?>>>) getProperties(node).get(P_HANDLERS);
     }
 
+    private static Map<NodeTracker, Runnable> getTrackers(Node node) {
+        return (Map<NodeTracker, Runnable>) getProperties(node).get(P_TRACKERS);
+    }
+
     private static Stack<InputMap<?>> getStack(Node node) {
         ObservableMap<Object, Object> nodeProperties = getProperties(node);
         if (nodeProperties.get(P_STACK) == null) {
@@ -0,0 +1,38 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import javafx.event.Event;
+
+import org.fxmisc.wellbehaved.event.InputHandler.Result;
+import org.fxmisc.wellbehaved.event.internal.InputMonitors;
+
+/**
+ * The handler of a {@link PatternActionMap}; exposes its pattern's attribute test to {@link InputHandlerMap}.
+ */
+class PatternHandler<T extends Event, U extends T> implements InputHandler<T> {
+    private final EventPattern<T, ? extends U> pattern;
+    private final Function<? super U, InputHandler.Result> action;
+
+    PatternHandler(EventPattern<T, ? extends U> pattern, Function<? super U, InputHandler.Result> action) {
+        this.pattern = pattern;
+        this.action = action;
+    }
+
+    EventAttribute.Test<?> getAttributeTest() {
+        return pattern.getAttributeTest().orElse(null);
+    }
+
+    @Override
+    public Result process(T event) {
+        Optional<? extends U> match = pattern.match(event);
+        if(!match.isPresent()) {
+            return Result.PROCEED;
+        }
+        // without monitors, run the action directly: no allocation on top of the pattern's own
+        return InputMonitors.isActive()
+                ? InputMonitors.handle(pattern, match.get(), action)
+                : action.apply(match.get());
+    }
+}
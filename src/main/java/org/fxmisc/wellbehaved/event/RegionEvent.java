@@ -0,0 +1,89 @@
+package org.fxmisc.wellbehaved.event;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.MouseEvent;
+
+/**
+ * An event of a region of a {@link RegionIndex}, fired on the node whose input map has a region pattern. It is
+ * either a {@link #MOUSE_IN_REGION} event for a mouse event that hit the region, as passed to the handlers of
+ * patterns such as {@link EventPattern#mousePressedIn(RegionIndex)}, or a hover event ({@link #REGION_ENTERED},
+ * {@link #REGION_EXITED}, {@link #REGION_HOVERED}) of patterns such as {@link EventPattern#regionEntered(RegionIndex)}.
+ * Consuming a mouse in region event, e.g. by returning {@link InputHandler.Result#CONSUME}, consumes the mouse
+ * event that hit the region.
+ *
+ * <p>A mouse in region event is fired by a handler of the mouse event that {@link Nodes} installs along with the
+ * input map, after the input map's other handlers of the mouse event type, and only if none of the node's earlier
+ * handlers consumed the mouse event.</p>
+ *
+ * @param <R> type of the regions
+ */
+public class RegionEvent<R> extends Event {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final EventType<RegionEvent<?>> ANY = new EventType<>(Event.ANY, "REGION");
+
+    /** A mouse event hit the region */
+    public static final EventType<RegionEvent<?>> MOUSE_IN_REGION = new EventType<>(ANY, "MOUSE_IN_REGION");
+
+    /** The mouse entered the region */
+    public static final EventType<RegionEvent<?>> REGION_ENTERED = new EventType<>(ANY, "REGION_ENTERED");
+
+    /** The mouse exited the region */
+    public static final EventType<RegionEvent<?>> REGION_EXITED = new EventType<>(ANY, "REGION_EXITED");
+
+    /** The mouse moved within the region (at most once per pulse) */
+    public static final EventType<RegionEvent<?>> REGION_HOVERED = new EventType<>(ANY, "REGION_HOVERED");
+
+    private final transient RegionIndex<R> index;
+    private final transient R region;
+    private final MouseEvent mouseEvent;
+
+    /**
+     * Creates a region event of the given type, caused by the given mouse event.
+     */
+    public RegionEvent(EventType<? extends Event> eventType, MouseEvent mouseEvent, RegionIndex<R> index, R region) {
+        super(mouseEvent.getSource(), mouseEvent.getTarget(), eventType);
+        this.mouseEvent = mouseEvent;
+        this.index = index;
+        this.region = region;
+    }
+
+    public RegionIndex<R> getIndex() {
+        return index;
+    }
+
+    public R getRegion() {
+        return region;
+    }
+
+    /**
+     * Returns the mouse event that hit the region or, for hover events, the last mouse event of the pulse.
+     */
+    public MouseEvent getMouseEvent() {
+        return mouseEvent;
+    }
+
+    /**
+     * Returns the horizontal position of the mouse, in the coordinates of the regions.
+     */
+    public double getX() {
+        return mouseEvent.getX();
+    }
+
+    public double getY() {
+        return mouseEvent.getY();
+    }
+
+    @Override
+    public void consume() {
+        super.consume();
+        mouseEvent.consume();
+    }
+
+    @Override
+    public String toString() {
+        return "RegionEvent[" + getEventType() + " " + region + " at (" + getX() + ", " + getY() + ")]";
+    }
+}
@@ -0,0 +1,89 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.event.EventTarget;
+import javafx.event.EventType;
+import javafx.scene.input.MouseEvent;
+
+/**
+ * The source of one type of {@link RegionEvent}s of a {@link RegionIndex}: either the mouse in region events for
+ * one type of mouse events, fired by its {@link #getTranslator() translator}, or the hover events of one kind,
+ * fired by a {@link RegionHover}. Its event type is a subtype of the public region event type that only this
+ * source fires. When {@link Nodes} installs a handler for the type of a mouse in region source on a node, it looks
+ * up the source with {@link #of(EventType)} and installs its translator too, so that the handler gets the region
+ * events of the node; hover events are fired by the {@link NodeTracker} of the index instead.
+ */
+final class RegionEventSource<R> {
+
+    // the sources are kept alive by their index and patterns, not by this registry
+    private static final Map<EventType<?>, WeakReference<RegionEventSource<?>>> SOURCES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Returns the source that fires events of the given type, or null if the type is not one of a source.
+     */
+    static RegionEventSource<?> of(EventType<?> eventType) {
+        WeakReference<RegionEventSource<?>> ref = SOURCES.get(eventType);
+        return ref == null ? null : ref.get();
+    }
+
+    private final RegionIndex<R> index;
+    private final EventType<MouseEvent> mouseType;
+    private final EventType<RegionEvent<R>> eventType;
+    private final EventHandler<MouseEvent> translator;
+
+    /**
+     * @param mouseType the mouse events translated into region events, or null for hover events
+     */
+    RegionEventSource(RegionIndex<R> index, EventType<RegionEvent<?>> superType, EventType<MouseEvent> mouseType,
+            String name) {
+        this.index = index;
+        this.mouseType = mouseType;
+        this.eventType = new EventType<>(superType, name);
+        this.translator = mouseType == null ? null : this::translate;
+        SOURCES.put(eventType, new WeakReference<>(this));
+    }
+
+    EventType<RegionEvent<R>> getEventType() {
+        return eventType;
+    }
+
+    boolean isHover() {
+        return mouseType == null;
+    }
+
+    /**
+     * Returns the type of the mouse events translated into region events, or null for hover events.
+     */
+    EventType<MouseEvent> getMouseType() {
+        return mouseType;
+    }
+
+    /**
+     * Returns the handler of {@link #getMouseType()} that fires a region event on the node when a mouse event
+     * hits a region, unless an earlier handler of the node consumed the mouse event; null for hover events.
+     */
+    EventHandler<MouseEvent> getTranslator() {
+        return translator;
+    }
+
+    private void translate(MouseEvent e) {
+        if(!e.isConsumed()) {
+            R region = index.getRegionAt(e.getX(), e.getY());
+            if(region != null) {
+                Event.fireEvent((EventTarget) e.getSource(), new RegionEvent<>(eventType, e, index, region));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return isHover() ? eventType.getSuperType().getName() : mouseType.getName() + " in regions";
+    }
+}
@@ -0,0 +1,80 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Objects;
+
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.event.EventType;
+import javafx.scene.Node;
+import javafx.scene.input.MouseEvent;
+
+import org.fxmisc.wellbehaved.event.internal.PulseScheduler;
+
+/**
+ * Tracks the region of a {@link RegionIndex} hovered on one node. Mouse events of a pulse are coalesced: at the
+ * next pulse, the region under the last one is looked up once, and only the resulting transition is fired on the
+ * node, as {@link RegionEvent#REGION_EXITED} of the previously hovered region, {@link RegionEvent#REGION_ENTERED}
+ * of the new one and {@link RegionEvent#REGION_HOVERED}, each with the event type of the index.
+ *
+ * <p>The mouse events are taken from event filters on the node, so that handlers consuming them (or patterns
+ * and guards that do not let them through) do not freeze the hovered region. It is started by the
+ * {@link NodeTracker} of the index when an input map with hover patterns of the index is installed on the node,
+ * and stopped when the input map goes away.</p>
+ */
+final class RegionHover<R> {
+    private final RegionIndex<R> index;
+    private final Node node;
+    private final EventHandler<MouseEvent> filter = this::offer;
+    private R hovered = null;
+    private MouseEvent pending = null;
+    private boolean stopped = false;
+
+    RegionHover(RegionIndex<R> index, Node node) {
+        this.index = index;
+        this.node = node;
+        node.addEventFilter(MouseEvent.MOUSE_MOVED, filter);
+        node.addEventFilter(MouseEvent.MOUSE_EXITED, filter);
+    }
+
+    /**
+     * Removes the event filters; hover events pending for the next pulse are dropped.
+     */
+    void stop() {
+        node.removeEventFilter(MouseEvent.MOUSE_MOVED, filter);
+        node.removeEventFilter(MouseEvent.MOUSE_EXITED, filter);
+        stopped = true;
+    }
+
+    private void offer(MouseEvent event) {
+        if(pending == null) {
+            PulseScheduler.runOnNextPulse(this::flush);
+        }
+        pending = event;
+    }
+
+    private void flush() {
+        MouseEvent e = pending;
+        pending = null;
+        if(stopped) {
+            return;
+        }
+        R region = e.getEventType() == MouseEvent.MOUSE_EXITED ? null : index.getRegionAt(e.getX(), e.getY());
+        if(!Objects.equals(region, hovered)) {
+            R exited = hovered;
+            hovered = region;
+            if(exited != null) {
+                fire(RegionEvent.REGION_EXITED, e, exited);
+            }
+            if(region != null) {
+                fire(RegionEvent.REGION_ENTERED, e, region);
+            }
+        }
+        if(region != null) {
+            fire(RegionEvent.REGION_HOVERED, e, region);
+        }
+    }
+
+    private void fire(EventType<RegionEvent<?>> hoverType, MouseEvent e, R region) {
+        Event.fireEvent(node, new RegionEvent<>(index.hoverSource(hoverType).getEventType(), e, index, region));
+    }
+}
@@ -0,0 +1,200 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.event.EventType;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.input.MouseEvent;
+
+/**
+ * A registry of rectangular hit regions (e.g. glyphs or hotspots drawn on a {@link javafx.scene.canvas.Canvas}),
+ * indexed by a uniform grid so that finding the region at a point only tests the regions overlapping one grid
+ * cell instead of all regions. Used by patterns such as {@link EventPattern#mousePressedIn(RegionIndex)},
+ * which pass the hit region to the handler:
+ *
+ * <pre><code>
+ * RegionIndex&lt;Glyph&gt; glyphs = new RegionIndex&lt;&gt;(32);
+ * for(Glyph g: layout) { glyphs.put(g, g.getBounds()); }
+ * Nodes.addInputMap(canvas, consume(mousePressedIn(glyphs), e -&gt; select(e.getRegion())));
+ * </code></pre>
+ *
+ * <p>Hover events of the regions are available as patterns too, e.g. {@link EventPattern#regionEntered(RegionIndex)}.</p>
+ *
+ * <p>Regions are positioned in the coordinates of the node that receives the mouse events. They can be added,
+ * moved and removed incrementally; when regions overlap, the one put most recently wins. The cell size should be
+ * about the size of a typical region. Must only be used from the JavaFX application thread.</p>
+ *
+ * @param <R> type of the regions; regions are compared with {@code equals}
+ */
+public final class RegionIndex<R> {
+
+    private static final class Entry<R> {
+        final R region;
+        final double minX, minY, maxX, maxY;
+        final int minCol, minRow, maxCol, maxRow;
+        final long order;
+
+        Entry(R region, double minX, double minY, double maxX, double maxY, double cellSize, long order) {
+            this.region = region;
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.minCol = cell(minX, cellSize);
+            this.minRow = cell(minY, cellSize);
+            this.maxCol = cell(maxX, cellSize);
+            this.maxRow = cell(maxY, cellSize);
+            this.order = order;
+        }
+
+        boolean contains(double x, double y) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY;
+        }
+    }
+
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private final int id = nextId.incrementAndGet();
+    // patterns may be created off the JavaFX application thread, e.g. in templates
+    private final Map<EventType<?>, RegionEventSource<R>> sources = new ConcurrentHashMap<>();
+    private final NodeTracker hoverTracker = new NodeTracker() {
+        @Override
+        Runnable start(Node node) {
+            return new RegionHover<>(RegionIndex.this, node)::stop;
+        }
+    };
+    private final double cellSize;
+    private final Map<R, Entry<R>> entries = new HashMap<>();
+    private final Map<Long, List<Entry<R>>> cells = new HashMap<>();
+    private long nextOrder = 0;
+
+    /**
+     * Creates an empty index whose grid cells are squares of the given size.
+     */
+    public RegionIndex(double cellSize) {
+        if(!(cellSize > 0)) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adds the given region with the given bounds or, if it is already in the index, moves it to these bounds.
+     * Either way, the region is put on top of the regions it overlaps.
+     */
+    public void put(R region, double minX, double minY, double width, double height) {
+        if(width < 0 || height < 0) {
+            throw new IllegalArgumentException("Negative size: " + width + "x" + height);
+        }
+        remove(region);
+        Entry<R> entry = new Entry<>(region, minX, minY, minX + width, minY + height, cellSize, nextOrder++);
+        entries.put(region, entry);
+        for(int col = entry.minCol; col <= entry.maxCol; ++col) {
+            for(int row = entry.minRow; row <= entry.maxRow; ++row) {
+                cells.computeIfAbsent(key(col, row), k -> new ArrayList<>(4)).add(entry);
+            }
+        }
+    }
+
+    public void put(R region, Bounds bounds) {
+        put(region, bounds.getMinX(), bounds.getMinY(), bounds.getWidth(), bounds.getHeight());
+    }
+
+    /**
+     * Removes the given region; returns false if it was not in the index.
+     */
+    public boolean remove(R region) {
+        Entry<R> entry = entries.remove(region);
+        if(entry == null) {
+            return false;
+        }
+        for(int col = entry.minCol; col <= entry.maxCol; ++col) {
+            for(int row = entry.minRow; row <= entry.maxRow; ++row) {
+                Long key = key(col, row);
+                List<Entry<R>> cell = cells.get(key);
+                cell.remove(entry);
+                if(cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    public boolean contains(R region) {
+        return entries.containsKey(region);
+    }
+
+    /**
+     * Returns the bounds of the given region, or null if it is not in the index.
+     */
+    public Bounds getBounds(R region) {
+        Entry<R> entry = entries.get(region);
+        return entry == null
+                ? null
+                : new BoundingBox(entry.minX, entry.minY, entry.maxX - entry.minX, entry.maxY - entry.minY);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the topmost region that contains the given point, or null if there is none.
+     */
+    public R getRegionAt(double x, double y) {
+        List<Entry<R>> cell = cells.get(key(cell(x, cellSize), cell(y, cellSize)));
+        if(cell == null) {
+            return null;
+        }
+        Entry<R> hit = null;
+        for(int i = 0; i < cell.size(); ++i) {
+            Entry<R> entry = cell.get(i);
+            if(entry.contains(x, y) && (hit == null || entry.order > hit.order)) {
+                hit = entry;
+            }
+        }
+        return hit == null ? null : hit.region;
+    }
+
+    /**
+     * Returns the source of the region events of this index for the mouse events of the given type.
+     */
+    RegionEventSource<R> source(EventType<MouseEvent> mouseType) {
+        return sources.computeIfAbsent(mouseType, t -> new RegionEventSource<>(
+                this, RegionEvent.MOUSE_IN_REGION, mouseType, mouseType.getName() + "_IN_REGION#" + id));
+    }
+
+    /**
+     * Returns the source of the hover events of this index of the given type, e.g. {@link RegionEvent#REGION_ENTERED}.
+     */
+    RegionEventSource<R> hoverSource(EventType<RegionEvent<?>> hoverType) {
+        return sources.computeIfAbsent(hoverType, t -> {
+            RegionEventSource<R> source = new RegionEventSource<>(
+                    this, hoverType, null, hoverType.getName() + "#" + id);
+            hoverTracker.trackWith(source.getEventType());
+            return source;
+        });
+    }
+
+    private static int cell(double coordinate, double cellSize) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static Long key(int col, int row) {
+        return ((long) col << 32) | (row & 0xFFFFFFFFL);
+    }
+}
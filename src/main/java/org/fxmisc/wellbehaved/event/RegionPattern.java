@@ -0,0 +1,52 @@
+package org.fxmisc.wellbehaved.event;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+
+/**
+ * The pattern of the {@link RegionEvent}s of one {@link RegionEventSource}: mouse events of a given type that hit a
+ * region of a {@link RegionIndex}, or hover events of the index. The events are fired on the node by what
+ * {@link Nodes} installs along with the pattern's handlers.
+ */
+final class RegionPattern<R> implements EventPattern<Event, RegionEvent<R>> {
+    private final RegionEventSource<R> source;
+    private final Set<EventType<? extends RegionEvent<R>>> eventTypes;
+
+    RegionPattern(RegionEventSource<R> source) {
+        this.source = source;
+        this.eventTypes = Collections.singleton(source.getEventType());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<RegionEvent<R>> match(Event event) {
+        // only the source fires events of its type
+        return event.getEventType() == source.getEventType()
+                ? Optional.of((RegionEvent<R>) event)
+                : Optional.empty();
+    }
+
+    @Override
+    public Set<EventType<? extends RegionEvent<R>>> getEventTypes() {
+        return eventTypes;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RegionPattern && ((RegionPattern<?>) other).source == source;
+    }
+
+    @Override
+    public int hashCode() {
+        return source.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package org.fxmisc.wellbehaved.event;
+
+import static javafx.scene.input.MouseEvent.*;
+import static org.fxmisc.wellbehaved.event.MouseGestures.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.util.Duration;
+
+import org.fxmisc.wellbehaved.event.internal.Durations;
+
+/**
+ * Recognizes a click that is not followed by another click within the multi-click interval, so that single-click
+ * and double-click handlers of the same node do not both run on a double click; see
+ * {@link EventPattern#mouseSingleClicked(MouseButton, Duration)}.
+ */
+final class SingleClickPattern extends GesturePattern {
+    private final long intervalNanos;
+
+    SingleClickPattern(MouseButton button, Duration multiClickInterval) {
+        super(button, MOUSE_SINGLE_CLICKED, new HashSet<>(Arrays.asList(MOUSE_PRESSED, MOUSE_CLICKED)));
+        this.intervalNanos = Durations.toNanos(multiClickInterval);
+    }
+
+    @Override
+    void update(State s, MouseEvent e) {
+        if(e.getButton() == button) {
+            if(e.getEventType() == MOUSE_CLICKED && e.getClickCount() == 1) {
+                schedule(s, e, intervalNanos);
+            } else if(e.getEventType() == MOUSE_PRESSED && e.getClickCount() > 1) {
+                s.cancel(); // a double click is on its way
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MOUSE_SINGLE_CLICKED.getName() + " " + button;
+    }
+}
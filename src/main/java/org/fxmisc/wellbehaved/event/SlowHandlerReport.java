@@ -0,0 +1,49 @@
+package org.fxmisc.wellbehaved.event;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+
+/**
+ * Describes a handler that exceeded the frame budget of the watchdog enabled via
+ * {@link Nodes#enableWatchdog(javafx.util.Duration, java.util.function.Consumer)}.
+ */
+public final class SlowHandlerReport {
+
+    private final EventPattern<?, ?> pattern;
+    private final Event event;
+    private final long elapsedNanos;
+    private final StackTraceElement[] stackTrace;
+
+    SlowHandlerReport(EventPattern<?, ?> pattern, Event event, long elapsedNanos, StackTraceElement[] stackTrace) {
+        this.pattern = pattern;
+        this.event = event;
+        this.elapsedNanos = elapsedNanos;
+        this.stackTrace = stackTrace;
+    }
+
+    /** The pattern whose handler was running */
+    public EventPattern<?, ?> getPattern() { return pattern; }
+
+    /** The event being handled */
+    public Event getEvent() { return event; }
+
+    public EventType<? extends Event> getEventType() { return event.getEventType(); }
+
+    /** How long the handler had been running when the stack was sampled, in nanoseconds */
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /** Stack of the JavaFX application thread sampled while the handler was still running */
+    public StackTraceElement[] getStackTrace() { return stackTrace.clone(); }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Handler of ").append(pattern)
+          .append(" for ").append(event.getEventType())
+          .append(" exceeded budget: running for ").append(elapsedNanos / 1000000.0).append(" ms");
+        for(StackTraceElement ste: stackTrace) {
+            sb.append("\n\tat ").append(ste);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+/**
+ * Support for handlers that run their work off the JavaFX application thread.
+ */
+public final class AsyncHandlers {
+
+    private AsyncHandlers() {}
+
+    private static final class DefaultExecutor {
+        static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            // use virtual threads when running on a JDK that has them
+            try {
+                Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) m.invoke(null);
+            } catch(ReflectiveOperationException | RuntimeException e) {
+                AtomicInteger n = new AtomicInteger();
+                ThreadFactory threads = r -> {
+                    Thread t = new Thread(r, "WellBehavedFX async handler " + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                };
+                return Executors.newCachedThreadPool(threads);
+            }
+        }
+    }
+
+    /**
+     * Executor used by asynchronous handlers when none is given: a virtual-thread-per-task executor when
+     * available (JDK 21+), otherwise a cached pool of daemon threads.
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutor.INSTANCE;
+    }
+
+    /**
+     * Runs {@code work} on the given executor and passes its result to {@code onFx} on the JavaFX application
+     * thread. If {@code work} fails, the exception is rethrown on the JavaFX application thread, where it
+     * reaches that thread's uncaught exception handler, as if a synchronous handler had thrown it.
+     */
+    public static <R> void submit(Callable<? extends R> work, Consumer<? super R> onFx, Executor executor) {
+        executor.execute(() -> {
+            R result;
+            try {
+                result = work.call();
+            } catch(Exception e) {
+                Platform.runLater(() -> { throw new CompletionException(e); });
+                return;
+            }
+            Platform.runLater(() -> onFx.accept(result));
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+
+import javafx.event.Event;
+import javafx.scene.input.ScrollEvent;
+
+/**
+ * Keeps at most one pending value per key (e.g. per node or per template target) and delivers the pending
+ * values once per pulse via {@link PulseScheduler}. Values offered for the same key within one pulse are
+ * combined by a merge function.
+ *
+ * @param <K> type of keys
+ * @param <E> type of values, usually events
+ */
+public final class Coalescer<K, E> {
+
+    /**
+     * Merge function that keeps the latest event, except for {@link ScrollEvent}s, whose deltas are accumulated
+     * into a copy of the latest event.
+     */
+    public static <E extends Event> E latestOrScrollSum(E earlier, E later) {
+        if(earlier instanceof ScrollEvent && later instanceof ScrollEvent
+                && earlier.getEventType() == later.getEventType()) {
+            @SuppressWarnings("unchecked")
+            E sum = (E) sumDeltas((ScrollEvent) earlier, (ScrollEvent) later);
+            return sum;
+        } else {
+            return later;
+        }
+    }
+
+    /**
+     * Merge function that collects batches of events, in the order they were offered; offer each event as a
+     * singleton list.
+     */
+    public static <E> List<E> append(List<E> earlier, List<E> later) {
+        List<E> batch = earlier instanceof ArrayList ? earlier : new ArrayList<>(earlier);
+        batch.addAll(later);
+        return batch;
+    }
+
+    private static ScrollEvent sumDeltas(ScrollEvent e1, ScrollEvent e2) {
+        return new ScrollEvent(e2.getSource(), e2.getTarget(), e2.getEventType(),
+                e2.getX(), e2.getY(), e2.getScreenX(), e2.getScreenY(),
+                e2.isShiftDown(), e2.isControlDown(), e2.isAltDown(), e2.isMetaDown(),
+                e2.isDirect(), e2.isInertia(),
+                e1.getDeltaX() + e2.getDeltaX(), e1.getDeltaY() + e2.getDeltaY(),
+                e2.getTotalDeltaX(), e2.getTotalDeltaY(),
+                e2.getTextDeltaXUnits(), e1.getTextDeltaX() + e2.getTextDeltaX(),
+                e2.getTextDeltaYUnits(), e1.getTextDeltaY() + e2.getTextDeltaY(),
+                e2.getTouchCount(), e2.getPickResult());
+    }
+
+    private final BinaryOperator<E> merge;
+    private final BiConsumer<? super K, ? super E> deliver;
+    private final Map<K, E> pending = new IdentityHashMap<>();
+
+    public Coalescer(BinaryOperator<E> merge, BiConsumer<? super K, ? super E> deliver) {
+        this.merge = merge;
+        this.deliver = deliver;
+    }
+
+    /**
+     * Stores the given value (merged with the value already pending for the given key, if any)
+     * until the next pulse.
+     */
+    public void offer(K key, E event) {
+        if(pending.isEmpty()) {
+            PulseScheduler.runOnNextPulse(this::flush);
+        }
+        E previous = pending.get(key);
+        pending.put(key, previous == null ? event : merge.apply(previous, event));
+    }
+
+    private void flush() {
+        List<Map.Entry<K, E>> entries = new ArrayList<>(pending.entrySet());
+        pending.clear();
+        for(Map.Entry<K, E> entry: entries) {
+            deliver.accept(entry.getKey(), entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import javafx.event.Event;
+
+import org.fxmisc.wellbehaved.event.internal.TimerWheel.Timeout;
+
+/**
+ * Delivers the latest event offered for a key (e.g. a node or a template target) once no other event has been
+ * offered for that key for the given quiet period. Uses the shared {@link TimerWheel}.
+ *
+ * @param <K> type of keys
+ * @param <E> type of events
+ */
+public final class Debouncer<K, E extends Event> {
+
+    private final class Pending implements Runnable {
+        final K key;
+        final Timeout timeout = TimerWheel.shared().newTimeout(this);
+        E latest;
+
+        Pending(K key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            pending.remove(key);
+            deliver.accept(key, latest);
+        }
+    }
+
+    private final long quietNanos;
+    private final BiConsumer<? super K, ? super E> deliver;
+    private final Map<K, Pending> pending = new IdentityHashMap<>();
+
+    public Debouncer(long quietNanos, BiConsumer<? super K, ? super E> deliver) {
+        this.quietNanos = quietNanos;
+        this.deliver = deliver;
+    }
+
+    public void offer(K key, E event) {
+        Pending p = pending.get(key);
+        if(p == null) {
+            p = new Pending(key);
+            pending.put(key, p);
+        }
+        p.latest = event;
+        p.timeout.schedule(quietNanos);
+    }
+}
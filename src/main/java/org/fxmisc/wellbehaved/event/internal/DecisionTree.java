@@ -0,0 +1,117 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javafx.event.Event;
+
+import org.fxmisc.wellbehaved.event.EventAttribute;
+
+/**
+ * A sequence of handlers compiled into steps: every run of consecutive handlers whose patterns test the same
+ * {@link EventAttribute} becomes a single step that reads the attribute once and looks up the handlers that
+ * accept its value, in their original order; the remaining (opaque) handlers are kept as they are. Running the
+ * candidates of all the steps in order is then equivalent to running all the handlers in order.
+ *
+ * @param <H> type of the handlers
+ */
+public final class DecisionTree<H> {
+
+    private static final Object[] NONE = new Object[0];
+
+    /** Runs shorter than this are not worth a lookup */
+    private static final int MIN_SWITCH_SIZE = 2;
+
+    private static final class Switch {
+        final EventAttribute<?, ?> attribute;
+        final Map<Object, Object[]> cases;
+
+        Switch(EventAttribute<?, ?> attribute, Map<Object, Object[]> cases) {
+            this.attribute = attribute;
+            this.cases = cases;
+        }
+    }
+
+    /**
+     * Compiles the given handlers, using {@code testOf} to get the attribute test of a handler's pattern
+     * (or {@code null} if the handler is opaque).
+     */
+    public static <H> DecisionTree<H> compile(List<? extends H> handlers, Function<? super H, EventAttribute.Test<?>> testOf) {
+        List<Object> steps = new ArrayList<>();
+        List<Object> opaque = new ArrayList<>();
+        List<H> run = new ArrayList<>();
+        List<EventAttribute.Test<?>> runTests = new ArrayList<>();
+
+        for(H h: handlers) {
+            EventAttribute.Test<?> test = testOf.apply(h);
+            if(!runTests.isEmpty() && (test == null || test.getAttribute() != runTests.get(0).getAttribute())) {
+                flushRun(run, runTests, opaque, steps);
+            }
+            if(test == null) {
+                opaque.add(h);
+            } else {
+                run.add(h);
+                runTests.add(test);
+            }
+        }
+        flushRun(run, runTests, opaque, steps);
+        flushOpaque(opaque, steps);
+        return new DecisionTree<>(steps.toArray());
+    }
+
+    private static void flushRun(List<?> run, List<EventAttribute.Test<?>> tests, List<Object> opaque, List<Object> steps) {
+        if(run.size() < MIN_SWITCH_SIZE) {
+            opaque.addAll(run);
+        } else {
+            flushOpaque(opaque, steps);
+            Map<Object, List<Object>> cases = new LinkedHashMap<>();
+            for(int i = 0; i < run.size(); ++i) {
+                for(Object value: tests.get(i).getValues()) {
+                    cases.computeIfAbsent(value, v -> new ArrayList<>()).add(run.get(i));
+                }
+            }
+            Map<Object, Object[]> table = new HashMap<>();
+            cases.forEach((value, hs) -> table.put(value, hs.toArray()));
+            steps.add(new Switch(tests.get(0).getAttribute(), table));
+        }
+        run.clear();
+        tests.clear();
+    }
+
+    private static void flushOpaque(List<Object> opaque, List<Object> steps) {
+        if(!opaque.isEmpty()) {
+            steps.add(opaque.toArray());
+            opaque.clear();
+        }
+    }
+
+    private final Object[] steps;
+
+    private DecisionTree(Object[] steps) {
+        this.steps = steps;
+    }
+
+    public int getStepCount() {
+        return steps.length;
+    }
+
+    /**
+     * Returns the handlers of the given step that may match the given event, in their original order.
+     * The elements are of type {@code H}.
+     */
+    public Object[] getCandidates(int step, Event event) {
+        Object s = steps[step];
+        if(s instanceof Switch) {
+            Switch sw = (Switch) s;
+            Object value = sw.attribute.get(event);
+            Object[] candidates = value != null ? sw.cases.get(value) : null;
+            return candidates != null ? candidates : NONE;
+        } else {
+            return (Object[]) s;
+        }
+    }
+}
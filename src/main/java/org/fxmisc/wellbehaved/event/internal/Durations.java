@@ -0,0 +1,27 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import javafx.util.Duration;
+
+/**
+ * Conversion of the {@link Duration}s passed to the time-based combinators into the nanoseconds used by
+ * {@link TimerWheel} and the other internals.
+ */
+public final class Durations {
+
+    private Durations() {}
+
+    /**
+     * Returns the given duration in nanoseconds, or {@link Long#MAX_VALUE} if it is {@link Duration#INDEFINITE}
+     * or too long to be represented (i.e. "never").
+     *
+     * @throws IllegalArgumentException if the duration is negative or {@link Duration#UNKNOWN}
+     */
+    public static long toNanos(Duration duration) {
+        double millis = duration.toMillis();
+        if(Double.isNaN(millis) || millis < 0) {
+            throw new IllegalArgumentException("Expected a non-negative duration, got " + duration);
+        }
+        // the cast saturates at Long.MAX_VALUE, including for infinity
+        return (long) (millis * 1_000_000);
+    }
+}
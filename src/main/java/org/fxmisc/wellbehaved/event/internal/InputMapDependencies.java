@@ -0,0 +1,44 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.beans.value.ObservableValue;
+
+/**
+ * Collects the observables that the handlers of a node depend on while its {@link org.fxmisc.wellbehaved.event.InputMap}
+ * is being compiled, so that the node can recompile its handlers when one of them changes.
+ * Must only be used from the JavaFX application thread.
+ */
+public final class InputMapDependencies {
+
+    private static List<ObservableValue<?>> current = null;
+
+    private InputMapDependencies() {}
+
+    /**
+     * Records that the handlers being compiled depend on the given observable. Does nothing if nothing is
+     * being compiled (e.g. when {@code forEachEventType} is called outside of
+     * {@link org.fxmisc.wellbehaved.event.Nodes}).
+     */
+    public static void track(ObservableValue<?> dependency) {
+        if(current != null && !current.contains(dependency)) {
+            current.add(dependency);
+        }
+    }
+
+    /**
+     * Runs {@code compile} and returns the dependencies it tracked.
+     */
+    public static List<ObservableValue<?>> collect(Runnable compile) {
+        List<ObservableValue<?>> previous = current;
+        List<ObservableValue<?>> dependencies = new ArrayList<>();
+        current = dependencies;
+        try {
+            compile.run();
+        } finally {
+            current = previous;
+        }
+        return dependencies;
+    }
+}
@@ -0,0 +1,106 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javafx.event.Event;
+import javafx.scene.Node;
+
+import org.fxmisc.wellbehaved.event.EventPattern;
+import org.fxmisc.wellbehaved.event.InputHandler.Result;
+import org.fxmisc.wellbehaved.event.InputMap;
+import org.fxmisc.wellbehaved.event.InputMonitor;
+
+/**
+ * Global registry of {@link InputMonitor}s and the hooks through which pattern-based handlers and
+ * {@link org.fxmisc.wellbehaved.event.Nodes} report to them.
+ */
+public final class InputMonitors {
+
+    private static final InputMonitor[] NONE = new InputMonitor[0];
+
+    // copy-on-write, so that dispatch never needs to lock
+    private static volatile InputMonitor[] monitors = NONE;
+
+    private InputMonitors() {}
+
+    public static synchronized void add(InputMonitor monitor) {
+        InputMonitor[] ms = Arrays.copyOf(monitors, monitors.length + 1);
+        ms[ms.length - 1] = monitor;
+        monitors = ms;
+    }
+
+    public static synchronized void remove(InputMonitor monitor) {
+        InputMonitor[] ms = monitors;
+        for(int i = 0; i < ms.length; ++i) {
+            if(ms[i] == monitor) {
+                InputMonitor[] res = new InputMonitor[ms.length - 1];
+                System.arraycopy(ms, 0, res, 0, i);
+                System.arraycopy(ms, i + 1, res, i, res.length - i);
+                monitors = res;
+                return;
+            }
+        }
+    }
+
+    public static boolean isActive() {
+        return monitors.length > 0;
+    }
+
+    /**
+     * Runs {@code action} on the event matched by {@code pattern}, reporting to the registered monitors.
+     */
+    public static <U extends Event> Result handle(EventPattern<?, ?> pattern, U event, Function<? super U, Result> action) {
+        InputMonitor[] ms = monitors;
+        if(ms.length == 0) {
+            return action.apply(event);
+        }
+
+        for(InputMonitor m: ms) {
+            m.handlerStarted(event, pattern);
+        }
+        long start = System.nanoTime();
+        Result res;
+        try {
+            res = action.apply(event);
+        } catch(RuntimeException | Error e) {
+            for(InputMonitor m: ms) {
+                m.handlerFailed(event, pattern, e);
+            }
+            throw e;
+        }
+        long nanos = System.nanoTime() - start;
+        for(InputMonitor m: ms) {
+            m.handlerFinished(event, pattern, res, nanos);
+        }
+        return res;
+    }
+
+    /**
+     * Runs the deferred action of a handler (e.g. a coalesced or debounced one) on the event matched by
+     * {@code pattern}, reporting it to the registered monitors like a handler that consumed the event.
+     */
+    public static <U extends Event> void runDeferred(EventPattern<?, ?> pattern, U event, Consumer<? super U> action) {
+        if(monitors.length == 0) {
+            action.accept(event);
+        } else {
+            handle(pattern, event, e -> {
+                action.accept(e);
+                return Result.CONSUME;
+            });
+        }
+    }
+
+    public static void installed(Node node, InputMap<?> inputMap, int handlerCount, long nanos) {
+        for(InputMonitor m: monitors) {
+            m.inputMapInstalled(node, inputMap, handlerCount, nanos);
+        }
+    }
+
+    public static void uninstalled(Node node, InputMap<?> inputMap, int handlerCount, long nanos) {
+        for(InputMonitor m: monitors) {
+            m.inputMapUninstalled(node, inputMap, handlerCount, nanos);
+        }
+    }
+}
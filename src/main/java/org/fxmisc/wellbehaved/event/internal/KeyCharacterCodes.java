@@ -0,0 +1,50 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.scene.input.KeyCharacterCombination;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+
+/**
+ * Caches which {@link KeyCode} produces a character on the current keyboard layout, which
+ * {@link KeyCharacterCombination#match(KeyEvent)} otherwise asks the toolkit for on every event.
+ * The cache is cleared via {@link #invalidate()} when the layout changes.
+ */
+public final class KeyCharacterCodes {
+
+    private static final KeyCombination.Modifier[] ALL_ANY = {
+            KeyCombination.SHIFT_ANY, KeyCombination.CONTROL_ANY, KeyCombination.ALT_ANY,
+            KeyCombination.META_ANY, KeyCombination.SHORTCUT_ANY
+    };
+
+    private static final Map<String, KeyCode> CODES = new ConcurrentHashMap<>();
+
+    private KeyCharacterCodes() {}
+
+    /**
+     * Returns the key code of the given character on the current layout, or {@link KeyCode#UNDEFINED} if no key
+     * produces it. Resolving a character for the first time probes every key code through
+     * {@link KeyCharacterCombination}, so that the result is the same as its {@code match} would give.
+     */
+    public static KeyCode get(String character) {
+        return CODES.computeIfAbsent(character, KeyCharacterCodes::resolve);
+    }
+
+    public static void invalidate() {
+        CODES.clear();
+    }
+
+    private static KeyCode resolve(String character) {
+        KeyCharacterCombination combination = new KeyCharacterCombination(character, ALL_ANY);
+        for(KeyCode code: KeyCode.values()) {
+            if(code != KeyCode.UNDEFINED
+                    && combination.match(new KeyEvent(KeyEvent.KEY_PRESSED, "", "", code, false, false, false, false))) {
+                return code;
+            }
+        }
+        return KeyCode.UNDEFINED;
+    }
+}
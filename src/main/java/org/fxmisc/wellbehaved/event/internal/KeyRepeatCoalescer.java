@@ -0,0 +1,112 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javafx.scene.input.KeyEvent;
+
+/**
+ * Detects auto-repeated key presses per key (e.g. per node or per template target) and folds the repeats that
+ * arrive within one pulse into a single delivery with a repeat count, at the next pulse via {@link PulseScheduler}.
+ * A press is a repeat if its key is the last key pressed for that key (of this coalescer) and it has been neither
+ * released nor {@link #reset(Object) reset} since; the first press of a key is left to the caller, to be handled
+ * right away.
+ *
+ * @param <K> type of keys
+ */
+public final class KeyRepeatCoalescer<K> {
+
+    @FunctionalInterface
+    public interface Delivery<K> {
+        void accept(K key, KeyEvent event, int count);
+    }
+
+    // holds no reference to its key, which would keep the weak key of states alive
+    private static final class State {
+        int downCode = -1;
+        KeyEvent latest = null;
+        int repeats = 0;
+    }
+
+    private final Delivery<? super K> deliver;
+    private final Map<K, State> states = new WeakHashMap<>();
+    private final Map<K, State> pending = new LinkedHashMap<>();
+
+    /**
+     * @param deliver delivery of the repeats of a key, with the latest repeat and the number of repeats
+     */
+    public KeyRepeatCoalescer(Delivery<? super K> deliver) {
+        this.deliver = deliver;
+    }
+
+    /**
+     * Returns true if the given press is the first press of its key code, which the caller is to handle right
+     * away, or false if it is a repeat, to be delivered at the next pulse.
+     */
+    public boolean pressed(K key, KeyEvent event) {
+        State s = states.computeIfAbsent(key, k -> new State());
+        int code = event.getCode().ordinal();
+        if(code == s.downCode) {
+            if(pending.isEmpty()) {
+                PulseScheduler.runOnNextPulse(this::flush);
+            }
+            if(s.latest == null) {
+                pending.put(key, s);
+            }
+            s.latest = event;
+            ++s.repeats;
+            return false;
+        } else {
+            // repeats of the previous key come first
+            pending.remove(key);
+            deliverRepeats(key, s);
+            s.downCode = code;
+            return true;
+        }
+    }
+
+    /**
+     * Returns true if the given release is the release of the key code held down for the given key.
+     */
+    public boolean released(K key, KeyEvent event) {
+        State s = states.get(key);
+        if(s != null && event.getCode().ordinal() == s.downCode) {
+            s.downCode = -1;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Forgets the key held down for the given key, e.g. when its node loses the focus and will not see the
+     * release, so that its next press is a first press.
+     */
+    public void reset(K key) {
+        State s = states.get(key);
+        if(s != null) {
+            s.downCode = -1;
+        }
+    }
+
+    private void flush() {
+        List<Map.Entry<K, State>> entries = new ArrayList<>(pending.entrySet());
+        pending.clear();
+        for(Map.Entry<K, State> entry: entries) {
+            deliverRepeats(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void deliverRepeats(K key, State s) {
+        KeyEvent latest = s.latest;
+        if(latest != null) {
+            int repeats = s.repeats;
+            s.latest = null;
+            s.repeats = 0;
+            deliver.accept(key, latest, repeats);
+        }
+    }
+}
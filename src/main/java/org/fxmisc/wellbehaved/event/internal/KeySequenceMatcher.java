@@ -0,0 +1,179 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyEvent;
+
+import org.fxmisc.wellbehaved.event.InputHandler.Result;
+import org.fxmisc.wellbehaved.event.KeySequence;
+
+/**
+ * Matches key pressed events against a set of {@link KeySequence}s stored in a trie of key strokes, keeping
+ * a cursor into the trie per key (e.g. per node or per template target).
+ *
+ * @param <K> type of the keys the cursors are kept for
+ * @param <A> type of the actions bound to the sequences
+ */
+public final class KeySequenceMatcher<K, A> {
+
+    private static final class TrieNode<A> {
+        private static final int[] NO_STROKES = new int[0];
+
+        // children by encoded stroke, sorted for binary search without boxing the strokes
+        int[] strokes = NO_STROKES;
+        TrieNode<A>[] children = newArray(0);
+        A action = null;
+
+        @SuppressWarnings("unchecked")
+        private static <A> TrieNode<A>[] newArray(int length) {
+            return (TrieNode<A>[]) new TrieNode<?>[length];
+        }
+
+        boolean isLeaf() {
+            return strokes.length == 0;
+        }
+
+        TrieNode<A> get(int stroke) {
+            int i = Arrays.binarySearch(strokes, stroke);
+            return i >= 0 ? children[i] : null;
+        }
+
+        TrieNode<A> getOrAdd(int stroke) {
+            int i = Arrays.binarySearch(strokes, stroke);
+            if(i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            int n = strokes.length;
+            int[] newStrokes = new int[n + 1];
+            TrieNode<A>[] newChildren = newArray(n + 1);
+            System.arraycopy(strokes, 0, newStrokes, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(strokes, at, newStrokes, at + 1, n - at);
+            System.arraycopy(children, at, newChildren, at + 1, n - at);
+            newStrokes[at] = stroke;
+            newChildren[at] = new TrieNode<>();
+            strokes = newStrokes;
+            children = newChildren;
+            return newChildren[at];
+        }
+    }
+
+    private static final class Cursor<A> {
+        TrieNode<A> node;
+        long lastStroke;
+    }
+
+    static int encode(KeyCodeCombination stroke) {
+        return stroke.getCode().ordinal() << 4 | ModifierMask.of(stroke).getRequired();
+    }
+
+    static int encode(KeyEvent event) {
+        return event.getCode().ordinal() << 4 | ModifierMask.of(event);
+    }
+
+    private final List<? extends Map.Entry<KeySequence, ? extends A>> bindings;
+    private final long timeoutNanos;
+    private final Map<K, Cursor<A>> cursors = new WeakHashMap<>();
+
+    // built on the first key press, since encoding a shortcut stroke resolves the platform's shortcut key,
+    // which should not happen when the input map is merely created (e.g. in a static initializer)
+    private TrieNode<A> root = null;
+
+    public KeySequenceMatcher(List<? extends Map.Entry<KeySequence, ? extends A>> bindings, long timeoutNanos) {
+        this.bindings = new ArrayList<>(bindings);
+        this.timeoutNanos = timeoutNanos;
+
+        // reject conflicting bindings right away, as far as they conflict without resolving the shortcut key
+        Set<List<KeyCodeCombination>> bound = new HashSet<>();
+        Set<List<KeyCodeCombination>> prefixes = new HashSet<>();
+        for(Map.Entry<KeySequence, ? extends A> binding: bindings) {
+            List<KeyCodeCombination> strokes = binding.getKey().getStrokes();
+            for(int i = 1; i < strokes.size(); ++i) {
+                if(bound.contains(strokes.subList(0, i))) {
+                    throw new IllegalArgumentException("A prefix of " + binding.getKey() + " is already bound");
+                }
+            }
+            if(bound.contains(strokes) || prefixes.contains(strokes)) {
+                throw new IllegalArgumentException(binding.getKey() + " is already bound or is a prefix of a bound sequence");
+            }
+            bound.add(strokes);
+            for(int i = 1; i < strokes.size(); ++i) {
+                prefixes.add(strokes.subList(0, i));
+            }
+        }
+    }
+
+    /**
+     * Builds the trie of the bindings. Bindings that only conflict once the shortcut key is resolved (e.g.
+     * {@code Shortcut+K} and {@code Ctrl+K} on a platform whose shortcut key is control) are rejected here.
+     */
+    private TrieNode<A> root() {
+        if(root == null) {
+            TrieNode<A> r = new TrieNode<>();
+            for(Map.Entry<KeySequence, ? extends A> binding: bindings) {
+                TrieNode<A> node = r;
+                for(KeyCodeCombination stroke: binding.getKey().getStrokes()) {
+                    if(node.action != null) {
+                        throw new IllegalArgumentException("A prefix of " + binding.getKey() + " is already bound");
+                    }
+                    node = node.getOrAdd(encode(stroke));
+                }
+                if(node.action != null || !node.isLeaf()) {
+                    throw new IllegalArgumentException(binding.getKey() + " is already bound or is a prefix of a bound sequence");
+                }
+                node.action = binding.getValue();
+            }
+            root = r;
+        }
+        return root;
+    }
+
+    /**
+     * Advances the cursor of the given key with the given key pressed event. Returns {@link Result#CONSUME} if the
+     * event continued a sequence (and passes the sequence's action to {@code onComplete} if the event completed it)
+     * and {@link Result#PROCEED} otherwise.
+     */
+    public Result advance(K key, KeyEvent event, Consumer<? super A> onComplete) {
+        if(event.getCode().isModifierKey()) {
+            return Result.PROCEED; // pressing Ctrl on the way to Ctrl+C neither advances nor resets the sequence
+        }
+
+        TrieNode<A> root = root();
+        long now = System.nanoTime();
+        int stroke = encode(event);
+        Cursor<A> cursor = cursors.get(key);
+        TrieNode<A> from = cursor != null && now - cursor.lastStroke <= timeoutNanos ? cursor.node : root;
+
+        TrieNode<A> next = from.get(stroke);
+        if(next == null && from != root) {
+            // the sequence was broken; the stroke may start another one
+            next = root.get(stroke);
+        }
+
+        if(next == null) {
+            cursors.remove(key);
+            return Result.PROCEED;
+        } else if(next.action != null) {
+            cursors.remove(key);
+            onComplete.accept(next.action);
+            return Result.CONSUME;
+        } else {
+            if(cursor == null) {
+                cursor = new Cursor<>();
+                cursors.put(key, cursor);
+            }
+            cursor.node = next;
+            cursor.lastStroke = now;
+            return Result.CONSUME;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+/**
+ * Runs asynchronous work with "latest wins" semantics: at most one task is in flight per key (e.g. per node or
+ * per template target). Submitting a new task for a key cancels (and interrupts) the previous one, and a result
+ * is only delivered if no newer task has been submitted for its key in the meantime.
+ *
+ * <p>{@link #submit(Object, Callable, Consumer, Executor)} must be called from the JavaFX application thread.</p>
+ *
+ * @param <K> type of keys
+ */
+public final class LatestAsync<K> {
+
+    private final Map<K, FutureTask<?>> inFlight = new IdentityHashMap<>();
+
+    public <R> void submit(K key, Callable<? extends R> work, Consumer<? super R> onFx, Executor executor) {
+        FutureTask<?> previous = inFlight.get(key);
+        if(previous != null) {
+            previous.cancel(true);
+        }
+
+        FutureTask<R> task = new FutureTask<R>(work::call) {
+            @Override
+            protected void done() {
+                if(!isCancelled()) {
+                    Platform.runLater(() -> deliver(key, this, onFx));
+                }
+            }
+        };
+        inFlight.put(key, task);
+        executor.execute(task);
+    }
+
+    private <R> void deliver(K key, FutureTask<R> task, Consumer<? super R> onFx) {
+        if(inFlight.get(key) != task) {
+            return; // stale: a newer task was submitted for the same key
+        }
+        inFlight.remove(key);
+
+        R result;
+        try {
+            result = task.get();
+        } catch(ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch(InterruptedException e) {
+            throw new AssertionError("unreachable code", e); // the task is done
+        }
+        onFx.accept(result);
+    }
+}
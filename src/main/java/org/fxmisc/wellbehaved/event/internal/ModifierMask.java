@@ -0,0 +1,109 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyCombination.ModifierValue;
+import javafx.scene.input.KeyEvent;
+
+/**
+ * The modifiers of a {@link KeyCombination}, precomputed as bit masks so that matching a key event takes two
+ * integer operations instead of {@link KeyCombination#match(KeyEvent)}'s per-modifier checks. The shortcut
+ * modifier is resolved to the platform's shortcut key (control or meta) on the first match, with the same semantics as
+ * {@code KeyCombination}: a modifier is required if it or the shortcut that maps to it is down, ignored if
+ * either is "any", and has to be up otherwise.
+ */
+public final class ModifierMask {
+
+    public static final int SHIFT = 1;
+    public static final int CONTROL = 1 << 1;
+    public static final int ALT = 1 << 2;
+    public static final int META = 1 << 3;
+    public static final int SHORTCUT = 1 << 4;
+
+    // loaded on first use, since KeyEvent.isShortcutDown() asks the toolkit for the platform's shortcut key,
+    // which should not happen when patterns are merely created (e.g. in static initializers)
+    private static final class ShortcutKey {
+        static final int MASK =
+                new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.A, false, true, false, false).isShortcutDown()
+                        ? CONTROL : META;
+    }
+
+    private static final int RESOLVED = 1 << 31;
+
+    /**
+     * Returns the physical modifiers (shift, control, alt and meta) that are down in the given event.
+     */
+    public static int of(KeyEvent event) {
+        return (event.isShiftDown() ? SHIFT : 0)
+             | (event.isControlDown() ? CONTROL : 0)
+             | (event.isAltDown() ? ALT : 0)
+             | (event.isMetaDown() ? META : 0);
+    }
+
+    public static ModifierMask of(KeyCombination combination) {
+        return new ModifierMask(mask(combination, ModifierValue.DOWN), mask(combination, ModifierValue.ANY));
+    }
+
+    private static int mask(KeyCombination c, ModifierValue value) {
+        return (c.getShift() == value ? SHIFT : 0)
+             | (c.getControl() == value ? CONTROL : 0)
+             | (c.getAlt() == value ? ALT : 0)
+             | (c.getMeta() == value ? META : 0)
+             | (c.getShortcut() == value ? SHORTCUT : 0);
+    }
+
+    private final int down;
+    private final int any;
+
+    // required modifiers in the low byte, ignored ones in the second byte, and the RESOLVED flag; a single
+    // field, so that a racy resolution on several threads can only publish complete (and identical) values
+    private int resolved = 0;
+
+    private ModifierMask(int down, int any) {
+        this.down = down;
+        this.any = any;
+    }
+
+    private int resolved() {
+        int r = resolved;
+        if(r == 0) {
+            int shortcutDown = (down & SHORTCUT) != 0 ? ShortcutKey.MASK : 0;
+            int shortcutAny = (any & SHORTCUT) != 0 ? ShortcutKey.MASK : 0;
+            int required = (down & ~SHORTCUT) | shortcutDown;
+            int ignored = ((any & ~SHORTCUT) | shortcutAny) & ~required;
+            r = RESOLVED | ignored << 8 | required;
+            resolved = r;
+        }
+        return r;
+    }
+
+    /**
+     * Returns true if the given event's modifiers match, as {@link KeyCombination#match(KeyEvent)} would.
+     */
+    public boolean matches(KeyEvent event) {
+        int r = resolved();
+        return (of(event) & ~(r >>> 8 & 0xFF)) == (r & 0xFF);
+    }
+
+    /**
+     * Returns the physical modifiers that have to be down (with the shortcut resolved).
+     */
+    public int getRequired() {
+        return resolved() & 0xFF;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(other instanceof ModifierMask) {
+            ModifierMask that = (ModifierMask) other;
+            return this.down == that.down && this.any == that.any;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return down * 31 + any;
+    }
+}
@@ -0,0 +1,46 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javafx.event.EventType;
+
+/**
+ * Collects the event types of the patterns of a node's {@link org.fxmisc.wellbehaved.event.InputMap} while its
+ * handlers are being compiled. The handlers of an event type are merged into those of a super type when both are
+ * in the input map, so the types of the compiled handlers do not tell which patterns are installed; the node needs
+ * them to set up what some patterns rely on, such as the event filters of gesture patterns.
+ * Must only be used from the JavaFX application thread.
+ */
+public final class PatternEventTypes {
+
+    private static Set<EventType<?>> current = null;
+
+    private PatternEventTypes() {}
+
+    /**
+     * Records that the handlers being compiled include a pattern of the given event type. Does nothing if nothing
+     * is being compiled (e.g. when {@code forEachEventType} is called outside of
+     * {@link org.fxmisc.wellbehaved.event.Nodes}).
+     */
+    public static void track(EventType<?> eventType) {
+        if(current != null) {
+            current.add(eventType);
+        }
+    }
+
+    /**
+     * Runs {@code compile} and returns the event types it tracked.
+     */
+    public static Set<EventType<?>> collect(Runnable compile) {
+        Set<EventType<?>> previous = current;
+        Set<EventType<?>> eventTypes = new LinkedHashSet<>();
+        current = eventTypes;
+        try {
+            compile.run();
+        } finally {
+            current = previous;
+        }
+        return eventTypes;
+    }
+}
@@ -0,0 +1,59 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Runs tasks at the next JavaFX pulse, using a single {@link AnimationTimer} shared by the whole library.
+ * The timer only runs while there is work to do. Must only be used from the JavaFX application thread.
+ */
+public final class PulseScheduler {
+
+    private static List<Runnable> pending = new ArrayList<>();
+    private static List<Runnable> running = new ArrayList<>();
+
+    private static final AnimationTimer TIMER = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            runPending();
+        }
+    };
+
+    private static boolean timerRunning = false;
+
+    private PulseScheduler() {}
+
+    /**
+     * Runs the given task once, at the next pulse.
+     */
+    public static void runOnNextPulse(Runnable task) {
+        pending.add(task);
+        if(!timerRunning) {
+            timerRunning = true;
+            TIMER.start();
+        }
+    }
+
+    private static void runPending() {
+        // swap the lists, so that tasks scheduled by the tasks being run go to the next pulse
+        List<Runnable> tasks = pending;
+        pending = running;
+        running = tasks;
+        for(Runnable task: tasks) {
+            try {
+                task.run();
+            } catch(RuntimeException e) {
+                // one failing task must not prevent the others from running
+                Thread t = Thread.currentThread();
+                t.getUncaughtExceptionHandler().uncaughtException(t, e);
+            }
+        }
+        tasks.clear();
+        if(pending.isEmpty()) {
+            TIMER.stop();
+            timerRunning = false;
+        }
+    }
+}
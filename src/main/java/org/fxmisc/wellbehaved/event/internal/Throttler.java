@@ -0,0 +1,63 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import javafx.event.Event;
+
+import org.fxmisc.wellbehaved.event.internal.TimerWheel.Timeout;
+
+/**
+ * Delivers events offered for a key (e.g. a node or a template target) at most once per interval: the first
+ * event is delivered immediately and opens the interval; of the events offered during the interval, the latest
+ * is delivered when the interval ends (and opens the next one). Uses the shared {@link TimerWheel}.
+ *
+ * @param <K> type of keys
+ * @param <E> type of events
+ */
+public final class Throttler<K, E extends Event> {
+
+    private final class Window implements Runnable {
+        final K key;
+        final Timeout timeout = TimerWheel.shared().newTimeout(this);
+        E trailing = null;
+
+        Window(K key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            if(trailing == null) {
+                windows.remove(key);
+            } else {
+                E e = trailing;
+                trailing = null;
+                timeout.schedule(intervalNanos);
+                deliver.accept(key, e);
+            }
+        }
+    }
+
+    private final long intervalNanos;
+    private final BiConsumer<? super K, ? super E> deliver;
+    private final Map<K, Window> windows = new IdentityHashMap<>();
+
+    public Throttler(long intervalNanos, BiConsumer<? super K, ? super E> deliver) {
+        this.intervalNanos = intervalNanos;
+        this.deliver = deliver;
+    }
+
+    public void offer(K key, E event) {
+        Window w = windows.get(key);
+        if(w == null) {
+            w = new Window(key);
+            windows.put(key, w);
+            w.timeout.schedule(intervalNanos);
+            deliver.accept(key, event);
+        } else {
+            w.trailing = event;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.fxmisc.wellbehaved.event.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timer wheel driven by JavaFX pulses (via {@link PulseScheduler}), shared by all time-based input
+ * combinators of the library, so that any number of pending timeouts costs one pulse task instead of one
+ * {@link javafx.animation.Timeline} each. Scheduling and cancelling a timeout are O(1); each pulse only visits
+ * the slots whose ticks elapsed since the previous pulse. The resolution is that of the pulses (~16 ms).
+ *
+ * <p>Must only be used from the JavaFX application thread.</p>
+ */
+public final class TimerWheel {
+
+    private static final long TICK_NANOS = 4_000_000; // 4 ms
+    private static final int SLOTS = 256; // must be a power of two; one round is ~1 s
+    private static final int MASK = SLOTS - 1;
+    private static final int NEVER = SLOTS; // slot of timeouts scheduled with a delay of Long.MAX_VALUE
+
+    private static final TimerWheel SHARED = new TimerWheel();
+
+    public static TimerWheel shared() {
+        return SHARED;
+    }
+
+    /**
+     * A reusable handle of a task that can be scheduled, rescheduled and cancelled.
+     */
+    public final class Timeout {
+        private final Runnable task;
+        private long deadline;
+        private int slot = -1;
+        private Timeout prev;
+        private Timeout next;
+        private boolean expired = false;
+
+        private Timeout(Runnable task) {
+            this.task = task;
+        }
+
+        public boolean isScheduled() {
+            return slot >= 0;
+        }
+
+        /**
+         * Schedules the task to run after the given delay, cancelling the previous schedule, if any.
+         * A delay of {@link Long#MAX_VALUE} (see {@link Durations#toNanos}) means "never": the timeout stays
+         * scheduled, but is not linked into the wheel.
+         */
+        public void schedule(long delayNanos) {
+            cancel();
+            if(delayNanos == Long.MAX_VALUE) {
+                slot = NEVER;
+                return;
+            }
+            long now = System.nanoTime();
+            if(count == 0) {
+                currentTick = Math.floorDiv(now, TICK_NANOS);
+            }
+            // saturate rather than overflow into the past
+            deadline = now + delayNanos < now ? Long.MAX_VALUE : now + delayNanos;
+            link(this);
+        }
+
+        public void cancel() {
+            expired = false;
+            if(slot == NEVER) {
+                slot = -1;
+            } else if(isScheduled()) {
+                unlink(this);
+            }
+        }
+    }
+
+    private final Timeout[] wheel = new Timeout[SLOTS];
+    private final List<Timeout> expired = new ArrayList<>();
+    private long currentTick = 0;
+    private int count = 0;
+    private boolean advanceScheduled = false;
+
+    private TimerWheel() {}
+
+    /**
+     * Returns a new, unscheduled, timeout of the given task.
+     */
+    public Timeout newTimeout(Runnable task) {
+        return new Timeout(task);
+    }
+
+    private void link(Timeout t) {
+        // round up, so that the deadline has passed by the time the slot is visited
+        long tick = Math.max(-Math.floorDiv(-t.deadline, TICK_NANOS), currentTick + 1);
+        int slot = (int) (tick & MASK);
+        t.slot = slot;
+        t.prev = null;
+        t.next = wheel[slot];
+        if(t.next != null) {
+            t.next.prev = t;
+        }
+        wheel[slot] = t;
+        ++count;
+        if(!advanceScheduled) {
+            advanceScheduled = true;
+            PulseScheduler.runOnNextPulse(this::advance);
+        }
+    }
+
+    private void unlink(Timeout t) {
+        if(t.prev != null) {
+            t.prev.next = t.next;
+        } else {
+            wheel[t.slot] = t.next;
+        }
+        if(t.next != null) {
+            t.next.prev = t.prev;
+        }
+        t.slot = -1;
+        t.prev = null;
+        t.next = null;
+        --count;
+    }
+
+    private void advance() {
+        advanceScheduled = false;
+        long now = System.nanoTime();
+        long nowTick = Math.floorDiv(now, TICK_NANOS);
+        long ticks = Math.min(nowTick - currentTick, SLOTS);
+        for(long i = 1; i <= ticks; ++i) {
+            expire((int) ((currentTick + i) & MASK), now);
+        }
+        currentTick = Math.max(currentTick, nowTick);
+
+        // run the tasks only after all slots were visited, since a task may (re)schedule or cancel timeouts
+        try {
+            for(Timeout t: expired) {
+                if(t.expired) {
+                    t.expired = false;
+                    t.task.run();
+                }
+            }
+        } finally {
+            expired.clear();
+            if(count > 0 && !advanceScheduled) {
+                advanceScheduled = true;
+                PulseScheduler.runOnNextPulse(this::advance);
+            }
+        }
+    }
+
+    private void expire(int slot, long now) {
+        Timeout t = wheel[slot];
+        while(t != null) {
+            Timeout next = t.next;
+            if(t.deadline <= now) {
+                unlink(t);
+                t.expired = true;
+                expired.add(t);
+            }
+            t = next;
+        }
+    }
+}
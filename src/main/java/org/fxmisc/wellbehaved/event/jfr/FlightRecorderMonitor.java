@@ -0,0 +1,101 @@
+package org.fxmisc.wellbehaved.event.jfr;
+
+import java.util.ArrayDeque;
+
+import javafx.event.Event;
+import javafx.scene.Node;
+
+import jdk.jfr.EventType;
+
+import org.fxmisc.wellbehaved.event.EventPattern;
+import org.fxmisc.wellbehaved.event.InputHandler.Result;
+import org.fxmisc.wellbehaved.event.InputMap;
+import org.fxmisc.wellbehaved.event.InputMonitor;
+
+/**
+ * {@link InputMonitor} that emits {@link InputDispatchEvent}s and {@link InputMapInstallEvent}s. Only loaded
+ * after {@link InputFlightRecorder} has checked that the {@code jdk.jfr} API is available.
+ */
+final class FlightRecorderMonitor implements InputMonitor {
+
+    private static final EventType DISPATCH_TYPE = EventType.getEventType(InputDispatchEvent.class);
+    private static final EventType INSTALL_TYPE = EventType.getEventType(InputMapInstallEvent.class);
+
+    private static final class Pending {
+        final Event event;
+        final EventPattern<?, ?> pattern;
+        final InputDispatchEvent jfrEvent = new InputDispatchEvent();
+
+        Pending(Event event, EventPattern<?, ?> pattern) {
+            this.event = event;
+            this.pattern = pattern;
+        }
+    }
+
+    // handlers may dispatch other events, so keep a stack of the ones in progress
+    private final ThreadLocal<ArrayDeque<Pending>> pending = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void handlerStarted(Event event, EventPattern<?, ?> pattern) {
+        if(DISPATCH_TYPE.isEnabled()) {
+            Pending p = new Pending(event, pattern);
+            pending.get().push(p);
+            p.jfrEvent.begin();
+        }
+    }
+
+    @Override
+    public void handlerFinished(Event event, EventPattern<?, ?> pattern, Result result, long nanos) {
+        commitDispatch(event, pattern, result.name());
+    }
+
+    @Override
+    public void handlerFailed(Event event, EventPattern<?, ?> pattern, Throwable exception) {
+        commitDispatch(event, pattern, exception.getClass().getName());
+    }
+
+    private void commitDispatch(Event event, EventPattern<?, ?> pattern, String result) {
+        ArrayDeque<Pending> stack = pending.get();
+        Pending p = stack.peek();
+        if(p == null || p.event != event || p.pattern != pattern) {
+            // recording was enabled while this handler was running
+            return;
+        }
+        stack.pop();
+
+        InputDispatchEvent e = p.jfrEvent;
+        e.end();
+        if(e.shouldCommit()) {
+            e.eventType = event.getEventType().getName();
+            e.nodeClass = event.getSource() == null ? null : event.getSource().getClass();
+            e.binding = pattern.toString();
+            e.result = result;
+            e.commit();
+        }
+    }
+
+    @Override
+    public void inputMapInstalled(Node node, InputMap<?> inputMap, int handlerCount, long nanos) {
+        commitInstall(node, true, handlerCount, nanos);
+    }
+
+    @Override
+    public void inputMapUninstalled(Node node, InputMap<?> inputMap, int handlerCount, long nanos) {
+        commitInstall(node, false, handlerCount, nanos);
+    }
+
+    private static void commitInstall(Node node, boolean installed, int handlerCount, long nanos) {
+        if(!INSTALL_TYPE.isEnabled()) {
+            return;
+        }
+        InputMapInstallEvent e = new InputMapInstallEvent();
+        if(e.shouldCommit()) {
+            e.nodeClass = node.getClass();
+            e.node = node.toString();
+            e.installed = installed;
+            e.handlerCount = handlerCount;
+            e.rebuildTime = nanos;
+            e.commit();
+        }
+    }
+}
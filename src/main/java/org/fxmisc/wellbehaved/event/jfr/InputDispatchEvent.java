@@ -0,0 +1,39 @@
+package org.fxmisc.wellbehaved.event.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Recorded when the handler of an {@link org.fxmisc.wellbehaved.event.EventPattern} that matched an event
+ * takes at least as long as the event's threshold (1 ms by default, configurable through the recording settings).
+ */
+@Name(InputDispatchEvent.NAME)
+@Label("Input Dispatch")
+@Description("Handling of an input event by a matching EventPattern's handler")
+@Category({ "WellBehavedFX", "Input" })
+@Threshold("1 ms")
+@StackTrace(false)
+public final class InputDispatchEvent extends Event {
+
+    public static final String NAME = "org.fxmisc.wellbehaved.InputDispatch";
+
+    @Label("Event Type")
+    String eventType;
+
+    @Label("Node Class")
+    @Description("Class of the node the event was dispatched to")
+    Class<?> nodeClass;
+
+    @Label("Binding")
+    @Description("The EventPattern whose handler ran")
+    String binding;
+
+    @Label("Result")
+    @Description("CONSUME, PROCEED, IGNORE or the class of the exception thrown by the handler")
+    String result;
+}
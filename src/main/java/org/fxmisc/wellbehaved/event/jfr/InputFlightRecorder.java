@@ -0,0 +1,72 @@
+package org.fxmisc.wellbehaved.event.jfr;
+
+import org.fxmisc.wellbehaved.event.InputMonitor;
+import org.fxmisc.wellbehaved.event.Nodes;
+
+/**
+ * Emits JDK Flight Recorder events for input handling, so that slow handlers show up in recordings
+ * under their {@link org.fxmisc.wellbehaved.event.EventPattern} rather than as anonymous lambda frames.
+ *
+ * <ul>
+ *     <li>
+ *         {@link InputDispatchEvent} ({@value InputDispatchEvent#NAME}): one per handler invocation that
+ *         exceeds the event's threshold (1 ms by default; override it in the recording settings, e.g.
+ *         {@code -XX:StartFlightRecording:settings=...} or {@code Recording.enable(...).withThreshold(...)}).
+ *     </li>
+ *     <li>
+ *         {@link InputMapInstallEvent} ({@value InputMapInstallEvent#NAME}): one per installation or
+ *         removal of an {@link org.fxmisc.wellbehaved.event.InputMap} via {@link Nodes}.
+ *     </li>
+ * </ul>
+ *
+ * <p>Requires the {@code jdk.jfr} API (JDK 8u262+ or JDK 11+). On runtimes without it, {@link #enable()}
+ * returns {@code false} and does nothing.</p>
+ */
+public final class InputFlightRecorder {
+
+    private static InputMonitor monitor = null;
+
+    private InputFlightRecorder() {}
+
+    /**
+     * Returns true if the running JDK provides the Flight Recorder API.
+     */
+    public static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, InputFlightRecorder.class.getClassLoader());
+            return true;
+        } catch(ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts emitting Flight Recorder events. The events are only recorded while a recording that enables
+     * them is running. Returns false if the Flight Recorder API is not available.
+     */
+    public static synchronized boolean enable() {
+        if(monitor != null) {
+            return true;
+        } else if(!isAvailable()) {
+            return false;
+        } else {
+            monitor = new FlightRecorderMonitor();
+            Nodes.addInputMonitor(monitor);
+            return true;
+        }
+    }
+
+    /**
+     * Stops emitting Flight Recorder events.
+     */
+    public static synchronized void disable() {
+        if(monitor != null) {
+            Nodes.removeInputMonitor(monitor);
+            monitor = null;
+        }
+    }
+
+    public static synchronized boolean isEnabled() {
+        return monitor != null;
+    }
+}
@@ -0,0 +1,41 @@
+package org.fxmisc.wellbehaved.event.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded when an {@link org.fxmisc.wellbehaved.event.InputMap} is installed into or uninstalled from a node
+ * via {@link org.fxmisc.wellbehaved.event.Nodes}.
+ */
+@Name(InputMapInstallEvent.NAME)
+@Label("InputMap Installation")
+@Description("Installation or removal of an InputMap and the resulting rebuild of the node's handlers")
+@Category({ "WellBehavedFX", "Input" })
+@StackTrace(true)
+public final class InputMapInstallEvent extends Event {
+
+    public static final String NAME = "org.fxmisc.wellbehaved.InputMapInstall";
+
+    @Label("Node Class")
+    Class<?> nodeClass;
+
+    @Label("Node")
+    String node;
+
+    @Label("Installed")
+    @Description("true if the input map was installed, false if it was uninstalled")
+    boolean installed;
+
+    @Label("Handler Count")
+    @Description("Number of event types for which the node has handlers after the change")
+    int handlerCount;
+
+    @Label("Rebuild Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long rebuildTime;
+}
@@ -0,0 +1,6 @@
+/**
+ * Optional integration with the JDK Flight Recorder: emits custom JFR events for input dispatch and for
+ * {@link org.fxmisc.wellbehaved.event.InputMap} installation. See
+ * {@link org.fxmisc.wellbehaved.event.jfr.InputFlightRecorder}.
+ */
+package org.fxmisc.wellbehaved.event.jfr;
@@ -0,0 +1,231 @@
+package org.fxmisc.wellbehaved.event.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import javafx.event.Event;
+import javafx.scene.Node;
+
+import org.fxmisc.wellbehaved.event.EventPattern;
+import org.fxmisc.wellbehaved.event.InputHandler.Result;
+import org.fxmisc.wellbehaved.event.InputMap;
+import org.fxmisc.wellbehaved.event.InputMonitor;
+import org.fxmisc.wellbehaved.event.Nodes;
+
+/**
+ * Collects input handling statistics aggregated by node class (dispatch counts, result ratios, handler
+ * latency percentiles and input map (un)installation counts) and publishes them as an MXBean named
+ * {@value #OBJECT_NAME}, so that they can be watched live with any JMX console.
+ *
+ * <p>All counters are lock-free ({@link LongAdder}s and fixed-bucket histograms backed by
+ * {@link AtomicLongArray}s), and so is the list of node classes, so the thread dispatching events never
+ * blocks on the statistics.</p>
+ *
+ * <pre><code>
+ * InputStatistics.register();
+ * </code></pre>
+ */
+public final class InputStatistics implements InputMonitor, InputStatisticsMXBean {
+
+    public static final String OBJECT_NAME = "org.fxmisc.wellbehaved:type=InputStatistics";
+
+    // bucket i holds latencies in [2^(i-1), 2^i) microseconds; bucket 0 holds latencies under 1 us
+    private static final int BUCKETS = 32;
+
+    private static final class Counters {
+        final LongAdder consumed = new LongAdder();
+        final LongAdder proceeded = new LongAdder();
+        final LongAdder ignored = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder installed = new LongAdder();
+        final LongAdder uninstalled = new LongAdder();
+        final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+
+        void handled(Result result, long nanos) {
+            switch(result) {
+                case CONSUME: consumed.increment(); break;
+                case PROCEED: proceeded.increment(); break;
+                case IGNORE:  ignored.increment();   break;
+            }
+            long micros = nanos / 1000;
+            int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            latencies.incrementAndGet(bucket);
+        }
+
+        void reset() {
+            consumed.sumThenReset();
+            proceeded.sumThenReset();
+            ignored.sumThenReset();
+            failed.sumThenReset();
+            installed.sumThenReset();
+            uninstalled.sumThenReset();
+            for(int i = 0; i < BUCKETS; ++i) {
+                latencies.getAndSet(i, 0);
+            }
+        }
+
+        NodeClassStatistics snapshot(String nodeClass) {
+            long[] hist = new long[BUCKETS];
+            for(int i = 0; i < BUCKETS; ++i) {
+                hist[i] = latencies.get(i);
+            }
+            long c = consumed.sum();
+            long p = proceeded.sum();
+            long i = ignored.sum();
+            long f = failed.sum();
+            return new NodeClassStatistics(nodeClass, c + p + i + f, c, p, i, f,
+                    percentile(hist, 0.50), percentile(hist, 0.99),
+                    installed.sum(), uninstalled.sum());
+        }
+
+        private static double percentile(long[] hist, double p) {
+            long total = 0;
+            for(long n: hist) {
+                total += n;
+            }
+            if(total == 0) {
+                return 0.0;
+            }
+            long rank = (long) Math.ceil(p * total);
+            long cumulative = 0;
+            for(int i = 0; i < hist.length; ++i) {
+                cumulative += hist[i];
+                if(cumulative >= rank) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (hist.length - 1);
+        }
+    }
+
+    private static InputStatistics registered = null;
+
+    /**
+     * Starts collecting statistics and registers the MXBean with the platform MBean server.
+     * Returns the already registered instance if called repeatedly.
+     */
+    public static synchronized InputStatistics register() {
+        if(registered == null) {
+            InputStatistics stats = new InputStatistics();
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                server.registerMBean(stats, new ObjectName(OBJECT_NAME));
+            } catch(JMException e) {
+                throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+            }
+            Nodes.addInputMonitor(stats);
+            registered = stats;
+        }
+        return registered;
+    }
+
+    /**
+     * Stops collecting statistics and unregisters the MXBean.
+     */
+    public static synchronized void unregister() {
+        if(registered != null) {
+            Nodes.removeInputMonitor(registered);
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+            } catch(JMException e) {
+                // already unregistered by someone else
+            }
+            registered = null;
+        }
+    }
+
+    private static final class Listing {
+        final WeakReference<Class<?>> type;
+        final Counters counters;
+
+        Listing(Class<?> type, Counters counters) {
+            this.type = new WeakReference<>(type);
+            this.counters = counters;
+        }
+    }
+
+    // the counters of a class are attached to the class itself, and only weakly listed for the snapshots,
+    // so that the statistics do not keep the node classes (and their class loaders) alive; the list is
+    // lock-free, so that listing a new class never waits for a snapshot
+    private final Queue<Listing> listed = new ConcurrentLinkedQueue<>();
+    private final ClassValue<Counters> counters = new ClassValue<Counters>() {
+        @Override
+        protected Counters computeValue(Class<?> type) {
+            Counters c = new Counters();
+            listed.add(new Listing(type, c));
+            return c;
+        }
+    };
+    private final LongAdder total = new LongAdder();
+
+    private InputStatistics() {}
+
+    private Counters countersOf(Object source) {
+        return counters.get(source == null ? Void.class : source.getClass());
+    }
+
+    @Override
+    public void handlerFinished(Event event, EventPattern<?, ?> pattern, Result result, long nanos) {
+        total.increment();
+        countersOf(event.getSource()).handled(result, nanos);
+    }
+
+    @Override
+    public void handlerFailed(Event event, EventPattern<?, ?> pattern, Throwable exception) {
+        total.increment();
+        countersOf(event.getSource()).failed.increment();
+    }
+
+    @Override
+    public void inputMapInstalled(Node node, InputMap<?> inputMap, int handlerCount, long nanos) {
+        countersOf(node).installed.increment();
+    }
+
+    @Override
+    public void inputMapUninstalled(Node node, InputMap<?> inputMap, int handlerCount, long nanos) {
+        countersOf(node).uninstalled.increment();
+    }
+
+    @Override
+    public List<NodeClassStatistics> getNodeClassStatistics() {
+        List<NodeClassStatistics> res = new ArrayList<>();
+        for(Iterator<Listing> it = listed.iterator(); it.hasNext(); ) {
+            Listing l = it.next();
+            Class<?> cls = l.type.get();
+            if(cls == null) {
+                it.remove();
+                continue;
+            }
+            NodeClassStatistics stats = l.counters.snapshot(cls == Void.class ? "<no source>" : cls.getName());
+            if(stats.getDispatchCount() > 0 || stats.getInstallCount() > 0 || stats.getUninstallCount() > 0) {
+                res.add(stats);
+            }
+        }
+        res.sort((a, b) -> Long.compare(b.getDispatchCount(), a.getDispatchCount()));
+        return res;
+    }
+
+    @Override
+    public long getTotalDispatchCount() {
+        return total.sum();
+    }
+
+    @Override
+    public void reset() {
+        for(Listing l: listed) {
+            l.counters.reset();
+        }
+        total.sumThenReset();
+    }
+}
@@ -0,0 +1,17 @@
+package org.fxmisc.wellbehaved.event.jmx;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link InputStatistics}.
+ */
+public interface InputStatisticsMXBean {
+
+    /** Statistics of each node class that handled events or had input maps (un)installed */
+    List<NodeClassStatistics> getNodeClassStatistics();
+
+    long getTotalDispatchCount();
+
+    /** Discards all collected statistics */
+    void reset();
+}
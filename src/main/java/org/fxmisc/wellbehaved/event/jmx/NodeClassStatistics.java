@@ -0,0 +1,78 @@
+package org.fxmisc.wellbehaved.event.jmx;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Snapshot of the input handling statistics of one node class. Since all instances of a node class usually
+ * share the same {@link org.fxmisc.wellbehaved.event.template.InputMapTemplate}, these are also the statistics
+ * of that template.
+ */
+public final class NodeClassStatistics {
+
+    private final String nodeClass;
+    private final long dispatchCount;
+    private final long consumeCount;
+    private final long proceedCount;
+    private final long ignoreCount;
+    private final long failureCount;
+    private final double latencyP50Micros;
+    private final double latencyP99Micros;
+    private final long installCount;
+    private final long uninstallCount;
+
+    @ConstructorProperties({ "nodeClass", "dispatchCount", "consumeCount", "proceedCount", "ignoreCount",
+            "failureCount", "latencyP50Micros", "latencyP99Micros", "installCount", "uninstallCount" })
+    public NodeClassStatistics(String nodeClass, long dispatchCount,
+            long consumeCount, long proceedCount, long ignoreCount, long failureCount,
+            double latencyP50Micros, double latencyP99Micros,
+            long installCount, long uninstallCount) {
+        this.nodeClass = nodeClass;
+        this.dispatchCount = dispatchCount;
+        this.consumeCount = consumeCount;
+        this.proceedCount = proceedCount;
+        this.ignoreCount = ignoreCount;
+        this.failureCount = failureCount;
+        this.latencyP50Micros = latencyP50Micros;
+        this.latencyP99Micros = latencyP99Micros;
+        this.installCount = installCount;
+        this.uninstallCount = uninstallCount;
+    }
+
+    public String getNodeClass() { return nodeClass; }
+
+    /** Number of handler invocations, i.e. events matched by some pattern */
+    public long getDispatchCount() { return dispatchCount; }
+
+    public long getConsumeCount() { return consumeCount; }
+    public long getProceedCount() { return proceedCount; }
+    public long getIgnoreCount() { return ignoreCount; }
+
+    /** Number of handler invocations that threw an exception */
+    public long getFailureCount() { return failureCount; }
+
+    public double getConsumeRatio() { return ratio(consumeCount); }
+    public double getProceedRatio() { return ratio(proceedCount); }
+    public double getIgnoreRatio() { return ratio(ignoreCount); }
+
+    /** Median handler latency, in microseconds (upper bound of the histogram bucket) */
+    public double getLatencyP50Micros() { return latencyP50Micros; }
+
+    /** 99th percentile of handler latency, in microseconds (upper bound of the histogram bucket) */
+    public double getLatencyP99Micros() { return latencyP99Micros; }
+
+    public long getInstallCount() { return installCount; }
+    public long getUninstallCount() { return uninstallCount; }
+
+    private double ratio(long count) {
+        return dispatchCount == 0 ? 0.0 : (double) count / dispatchCount;
+    }
+
+    @Override
+    public String toString() {
+        return nodeClass + "[dispatches=" + dispatchCount
+                + ", consume=" + consumeCount + ", proceed=" + proceedCount + ", ignore=" + ignoreCount
+                + ", failures=" + failureCount
+                + ", p50=" + latencyP50Micros + "us, p99=" + latencyP99Micros + "us"
+                + ", installs=" + installCount + ", uninstalls=" + uninstallCount + "]";
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Optional JMX integration: publishes live input handling statistics as an MXBean. See
+ * {@link org.fxmisc.wellbehaved.event.jmx.InputStatistics}.
+ */
+package org.fxmisc.wellbehaved.event.jmx;
@@ -1,16 +1,21 @@
 package org.fxmisc.wellbehaved.event.template;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 
 import javafx.event.Event;
 import javafx.event.EventType;
 
 import org.fxmisc.wellbehaved.event.InputHandler.Result;
+import org.fxmisc.wellbehaved.event.internal.DecisionTree;
+import org.fxmisc.wellbehaved.event.internal.PatternEventTypes;
 import org.fxmisc.wellbehaved.event.internal.PrefixTree;
 import org.fxmisc.wellbehaved.event.internal.PrefixTree.Ops;
 import org.fxmisc.wellbehaved.event.template.InputMapTemplate.HandlerTemplateConsumer;
@@ -20,14 +25,7 @@ class InputHandlerTemplateMap<S, E extends Event> {
     private static <S, E extends Event> InputHandlerTemplate<S, E> sequence(
             InputHandlerTemplate<S, ? super E> h1,
             InputHandlerTemplate<S, ? super E> h2) {
-        return (s, evt) -> {
-            switch(h1.process(s, evt)) {
-                case PROCEED: return h2.process(s, evt);
-                case CONSUME: return Result.CONSUME;
-                case IGNORE:  return Result.IGNORE;
-                default: throw new AssertionError("unreachable code");
-            }
-        };
+        return HandlerTemplateSeq.of(h1, h2);
     }
 
     private static <S, E extends Event> Ops<EventType<? extends E>, InputHandlerTemplate<S, ? super E>> ops() {
@@ -98,25 +96,103 @@ class InputHandlerTemplateMap<S, E extends Event> {
 
     private PrefixTree<EventType<? extends E>, InputHandlerTemplate<S, ? super E>> handlerTree;
 
+    // all the inserted event types, also those whose handlers were merged into the handlers of a super type; the
+    // maps are compiled once per template, so they report them to the nodes (see PatternEventTypes)
+    private final Set<EventType<?>> eventTypes;
+
     public InputHandlerTemplateMap() {
-        this(PrefixTree.empty(ops()));
+        this(PrefixTree.empty(ops()), new LinkedHashSet<>());
     }
 
-    private InputHandlerTemplateMap(PrefixTree<EventType<? extends E>, InputHandlerTemplate<S, ? super E>> handlerTree) {
+    private InputHandlerTemplateMap(PrefixTree<EventType<? extends E>, InputHandlerTemplate<S, ? super E>> handlerTree,
+            Set<EventType<?>> eventTypes) {
         this.handlerTree = handlerTree;
+        this.eventTypes = eventTypes;
     }
 
     public <F extends E> void insertAfter(EventType<? extends F> t, InputHandlerTemplate<S, ? super F> h) {
         InputHandlerTemplate<S, ? super E> handler = (InputHandlerTemplate<S, ? super E>) h;
         handlerTree = handlerTree.insert(t, handler, (h1, h2) -> sequence(h1, h2));
+        eventTypes.add(t);
+    }
+
+    /**
+     * Inserts the handlers of the given map after those of this one.
+     */
+    void insertAllAfter(InputHandlerTemplateMap<S, ? extends E> that) {
+        that.forEach(this::insertAfter);
+        eventTypes.addAll(that.eventTypes);
     }
 
     public <T> InputHandlerTemplateMap<T, E> map(
             Function<? super InputHandlerTemplate<S, ? super E>, ? extends InputHandlerTemplate<T, E>> f) {
-        return new InputHandlerTemplateMap<>(handlerTree.map(f, ops()));
+        return new InputHandlerTemplateMap<>(handlerTree.map(f, ops()), new LinkedHashSet<>(eventTypes));
     }
 
     void forEach(HandlerTemplateConsumer<S, ? super E> f) {
+        eventTypes.forEach(PatternEventTypes::track);
         handlerTree.entries().forEach(th -> f.accept(th.getKey(), th.getValue()));
     }
-}
\ No newline at end of file
+}
+
+/**
+ * Template version of {@code HandlerSeq}: handlers run in sequence until one of them does not
+ * {@link Result#PROCEED}, compiled into a {@link DecisionTree} the first time an event is processed. Like
+ * {@code HandlerSeq}, a sequence shares its handlers with the sequence it extends.
+ */
+class HandlerTemplateSeq<S, E extends Event> implements InputHandlerTemplate<S, E> {
+
+    @SuppressWarnings("unchecked")
+    static <S, E extends Event> HandlerTemplateSeq<S, E> of(
+            InputHandlerTemplate<S, ? super E> h1, InputHandlerTemplate<S, ? super E> h2) {
+        HandlerTemplateSeq<S, E> seq = h1 instanceof HandlerTemplateSeq
+                ? (HandlerTemplateSeq<S, E>) h1
+                : new HandlerTemplateSeq<>(null, h1);
+        if(h2 instanceof HandlerTemplateSeq) {
+            for(InputHandlerTemplate<S, ? super E> h: ((HandlerTemplateSeq<S, E>) h2).toList()) {
+                seq = new HandlerTemplateSeq<>(seq, h);
+            }
+            return seq;
+        } else {
+            return new HandlerTemplateSeq<>(seq, h2);
+        }
+    }
+
+    private final HandlerTemplateSeq<S, E> init;
+    private final InputHandlerTemplate<S, ? super E> last;
+    private final int size;
+    private DecisionTree<InputHandlerTemplate<S, ? super E>> tree = null;
+
+    private HandlerTemplateSeq(HandlerTemplateSeq<S, E> init, InputHandlerTemplate<S, ? super E> last) {
+        this.init = init;
+        this.last = last;
+        this.size = init == null ? 1 : init.size + 1;
+    }
+
+    private List<InputHandlerTemplate<S, ? super E>> toList() {
+        @SuppressWarnings("unchecked")
+        InputHandlerTemplate<S, ? super E>[] handlers = (InputHandlerTemplate<S, ? super E>[]) new InputHandlerTemplate<?, ?>[size];
+        for(HandlerTemplateSeq<S, E> seq = this; seq != null; seq = seq.init) {
+            handlers[seq.size - 1] = seq.last;
+        }
+        return Arrays.asList(handlers);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Result process(S state, E event) {
+        if(tree == null) {
+            tree = DecisionTree.compile(toList(),
+                    h -> h instanceof PatternHandlerTemplate ? ((PatternHandlerTemplate<?, ?, ?>) h).getAttributeTest() : null);
+        }
+        for(int i = 0; i < tree.getStepCount(); ++i) {
+            for(Object h: tree.getCandidates(i, event)) {
+                Result res = ((InputHandlerTemplate<S, ? super E>) h).process(state, event);
+                if(res != Result.PROCEED) {
+                    return res;
+                }
+            }
+        }
+        return Result.PROCEED;
+    }
+}
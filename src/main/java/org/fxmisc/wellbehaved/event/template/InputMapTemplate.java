@@ -1,21 +1,40 @@
 package org.fxmisc.wellbehaved.event.template;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import javafx.beans.value.ObservableValue;
 import javafx.event.Event;
 import javafx.event.EventType;
 import javafx.scene.Node;
+import javafx.scene.input.KeyEvent;
+import javafx.util.Duration;
 
+import org.fxmisc.wellbehaved.event.EventAttribute;
 import org.fxmisc.wellbehaved.event.EventPattern;
 import org.fxmisc.wellbehaved.event.InputHandler;
 import org.fxmisc.wellbehaved.event.InputHandler.Result;
 import org.fxmisc.wellbehaved.event.InputMap;
+import org.fxmisc.wellbehaved.event.KeyChords;
 import org.fxmisc.wellbehaved.event.Nodes;
+import org.fxmisc.wellbehaved.event.internal.AsyncHandlers;
+import org.fxmisc.wellbehaved.event.internal.Coalescer;
+import org.fxmisc.wellbehaved.event.internal.Debouncer;
+import org.fxmisc.wellbehaved.event.internal.Durations;
+import org.fxmisc.wellbehaved.event.internal.InputMapDependencies;
+import org.fxmisc.wellbehaved.event.internal.InputMonitors;
+import org.fxmisc.wellbehaved.event.internal.KeySequenceMatcher;
+import org.fxmisc.wellbehaved.event.internal.LatestAsync;
+import org.fxmisc.wellbehaved.event.internal.Throttler;
 
 /**
  * See {@link InputMap} for an explanation. This simply turns that concept into a template that can be used
@@ -107,13 +126,38 @@ public abstract class InputMapTemplate<S, E extends Event> {
         }
     }
 
+    /**
+     * Receives the result of an asynchronous handler, see {@link #consumeAsync(EventPattern, BiFunction,
+     * AsyncResultConsumer, Executor)}.
+     *
+     * @param <S> type of the target
+     * @param <E> type of the event
+     * @param <R> type of the result
+     */
+    @FunctionalInterface
+    public static interface AsyncResultConsumer<S, E, R> {
+        void accept(S target, E event, R result);
+    }
+
     private InputHandlerTemplateMap<S, E> inputHandlerTemplates = null;
 
     public final void forEachEventType(HandlerTemplateConsumer<S, ? super E> f) {
+        getSharedInputHandlerTemplateMap().forEach(f);
+    }
+
+    /**
+     * Like {@link #forEachEventType(HandlerTemplateConsumer)}, but with the handlers of the given target's instance.
+     */
+    final void forEachEventType(S target, HandlerTemplateConsumer<S, ? super E> f) {
+        InputHandlerTemplateMap<S, E> handlers = getInputHandlerTemplateMap(target);
+        (handlers != null ? handlers : getSharedInputHandlerTemplateMap()).forEach(f);
+    }
+
+    final InputHandlerTemplateMap<S, E> getSharedInputHandlerTemplateMap() {
         if(inputHandlerTemplates == null) {
             inputHandlerTemplates = getInputHandlerTemplateMap();
         }
-        inputHandlerTemplates.forEach(f);
+        return inputHandlerTemplates;
     }
 
     /**
@@ -132,6 +176,29 @@ public abstract class InputMapTemplate<S, E extends Event> {
 
     protected abstract InputHandlerTemplateMap<S, E> getInputHandlerTemplateMap();
 
+    /**
+     * Returns the handlers of this template's instance for the given {@code target}, or {@code null} if it uses
+     * the handlers of {@link #getInputHandlerTemplateMap()}, which are computed once and shared by all targets.
+     * Only templates that contain a {@link #whenObservable(Function, InputMapTemplate)} template have handlers
+     * of their own per target: they include the handlers whose condition holds for the target, and the target's
+     * node reinstalls its handlers when one of these conditions changes (see {@link Nodes}). Templates that wrap
+     * other templates override this method to pass the target on.
+     */
+    protected InputHandlerTemplateMap<S, E> getInputHandlerTemplateMap(S target) {
+        return null;
+    }
+
+    /**
+     * Returns the handlers of the given template for the given target, mapped by {@code f}, or {@code null} if
+     * the template uses its shared handlers (see {@link #getInputHandlerTemplateMap(Object)}).
+     */
+    static <S, T, E extends Event, F extends Event> InputHandlerTemplateMap<S, F> mapTargetHandlers(
+            InputMapTemplate<T, E> imt, T target,
+            Function<InputHandlerTemplateMap<T, E>, InputHandlerTemplateMap<S, F>> f) {
+        InputHandlerTemplateMap<T, E> handlers = imt.getInputHandlerTemplateMap(target);
+        return handlers != null ? f.apply(handlers) : null;
+    }
+
 
     static <S, E extends Event> InputMapTemplate<S, E> upCast(InputMapTemplate<S, ? extends E> imt) {
         @SuppressWarnings("unchecked")
@@ -194,18 +261,24 @@ public abstract class InputMapTemplate<S, E extends Event> {
     }
 
     private InputMapTemplate<S, E> postResult(Result checkedResult, BiConsumer<? super S, ? super E> postDesiredResult) {
+        Function<InputHandlerTemplateMap<S, E>, InputHandlerTemplateMap<S, E>> post = ihtm -> ihtm.map(iht -> {
+            return (s, evt) -> {
+                Result res = iht.process(s, evt);
+                if (res == checkedResult) {
+                    postDesiredResult.accept(s, evt);
+                }
+                return res;
+            };
+        });
         return new InputMapTemplate<S, E>() {
             @Override
             protected InputHandlerTemplateMap<S, E> getInputHandlerTemplateMap() {
-                return InputMapTemplate.this.getInputHandlerTemplateMap().map(iht -> {
-                    return (s, evt) -> {
-                        Result res = iht.process(s, evt);
-                        if (res == checkedResult) {
-                            postDesiredResult.accept(s, evt);
-                        }
-                        return res;
-                    };
-                });
+                return post.apply(InputMapTemplate.this.getInputHandlerTemplateMap());
+            }
+
+            @Override
+            protected InputHandlerTemplateMap<S, E> getInputHandlerTemplateMap(S target) {
+                return mapTargetHandlers(InputMapTemplate.this, target, post);
             }
         };
     }
@@ -217,10 +290,7 @@ public abstract class InputMapTemplate<S, E extends Event> {
     public static <S, T extends Event, U extends T> InputMapTemplate<S, U> consume(
             EventPattern<? super T, ? extends U> eventPattern,
             BiConsumer<? super S, ? super U> action) {
-        return process(eventPattern, (s, u) -> {
-            action.accept(s, u);
-            return Result.CONSUME;
-        });
+        return process(eventPattern, new PatternActionTemplate.ConsumeAction<>(action));
     }
 
     /**
@@ -252,6 +322,142 @@ public abstract class InputMapTemplate<S, E extends Event> {
         return consume(EventPattern.eventType(eventType));
     }
 
+    /**
+     * If the given {@link EventPattern} matches the given event type, consumes the event right away, but defers
+     * the given action to the next JavaFX pulse. All events matched for the same target before that pulse are
+     * coalesced, so that the action runs at most once per pulse per target. See
+     * {@link InputMap#coalesce(EventPattern, java.util.function.Consumer)}.
+     */
+    public static <S, T extends Event, U extends T> InputMapTemplate<S, U> coalesce(
+            EventPattern<? super T, ? extends U> eventPattern,
+            BiConsumer<? super S, ? super U> action) {
+        Coalescer<S, U> coalescer = new Coalescer<>(Coalescer::latestOrScrollSum,
+                (s, u) -> InputMonitors.runDeferred(eventPattern, u, v -> action.accept(s, v)));
+        return process(eventPattern, (s, u) -> {
+            coalescer.offer(s, u);
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * If the given {@link EventPattern} matches the given event type, consumes the event right away and adds it
+     * to a batch. At the next JavaFX pulse, the given action is called once per target with all the events matched
+     * for that target since the previous pulse, in the order they occurred. See
+     * {@link InputMap#consumeBatched(EventPattern, java.util.function.Consumer)}, also for how batched events
+     * are ordered with respect to events handled right away.
+     */
+    public static <S, T extends Event, U extends T> InputMapTemplate<S, U> consumeBatched(
+            EventPattern<? super T, ? extends U> eventPattern,
+            BiConsumer<? super S, ? super List<U>> action) {
+        Coalescer<S, List<U>> batcher = new Coalescer<>(Coalescer::append, (s, batch) ->
+                InputMonitors.runDeferred(eventPattern, batch.get(batch.size() - 1), u -> action.accept(s, batch)));
+        return process(eventPattern, (s, u) -> {
+            batcher.offer(s, Collections.singletonList(u));
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * Template version of {@link InputMap#debounce(EventPattern, Duration, java.util.function.Consumer)}: the
+     * quiet period is tracked per target.
+     */
+    public static <S, T extends Event, U extends T> InputMapTemplate<S, U> debounce(
+            EventPattern<? super T, ? extends U> eventPattern,
+            Duration quietPeriod,
+            BiConsumer<? super S, ? super U> action) {
+        Debouncer<S, U> debouncer = new Debouncer<>(Durations.toNanos(quietPeriod),
+                (s, u) -> InputMonitors.runDeferred(eventPattern, u, v -> action.accept(s, v)));
+        return process(eventPattern, (s, u) -> {
+            debouncer.offer(s, u);
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * Template version of {@link InputMap#throttle(EventPattern, Duration, java.util.function.Consumer)}: the
+     * interval is tracked per target.
+     */
+    public static <S, T extends Event, U extends T> InputMapTemplate<S, U> throttle(
+            EventPattern<? super T, ? extends U> eventPattern,
+            Duration interval,
+            BiConsumer<? super S, ? super U> action) {
+        Throttler<S, U> throttler = new Throttler<>(Durations.toNanos(interval),
+                (s, u) -> InputMonitors.runDeferred(eventPattern, u, v -> action.accept(s, v)));
+        return process(eventPattern, (s, u) -> {
+            throttler.offer(s, u);
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * Template version of
+     * {@link InputMap#consumeAsync(EventPattern, Function, java.util.function.BiConsumer, Executor)}: {@code work}
+     * is called on the JavaFX application thread with the target and the event, the returned
+     * {@link Callable} runs on the given executor and its result is passed to {@code onFx}, together with the
+     * target and the event, on the JavaFX application thread.
+     */
+    public static <S, T extends Event, U extends T, R> InputMapTemplate<S, U> consumeAsync(
+            EventPattern<? super T, ? extends U> eventPattern,
+            BiFunction<? super S, ? super U, ? extends Callable<? extends R>> work,
+            AsyncResultConsumer<? super S, ? super U, ? super R> onFx,
+            Executor executor) {
+        return process(eventPattern, (s, u) -> {
+            AsyncHandlers.submit(work.apply(s, u), r -> onFx.accept(s, u, r), executor);
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * Same as {@link #consumeAsync(EventPattern, BiFunction, AsyncResultConsumer, Executor)}, using virtual
+     * threads when the JDK supports them and a pool of daemon threads otherwise.
+     */
+    public static <S, T extends Event, U extends T, R> InputMapTemplate<S, U> consumeAsync(
+            EventPattern<? super T, ? extends U> eventPattern,
+            BiFunction<? super S, ? super U, ? extends Callable<? extends R>> work,
+            AsyncResultConsumer<? super S, ? super U, ? super R> onFx) {
+        return consumeAsync(eventPattern, work, onFx, AsyncHandlers.defaultExecutor());
+    }
+
+    /**
+     * Like {@link #consumeAsync(EventPattern, BiFunction, AsyncResultConsumer, Executor)}, but with "latest wins"
+     * semantics: at most one task is in flight per target; a new matching event cancels the previous task of the
+     * same target and drops its result. See
+     * {@link InputMap#consumeAsyncLatest(EventPattern, Function, java.util.function.BiConsumer, Executor)}.
+     */
+    public static <S, T extends Event, U extends T, R> InputMapTemplate<S, U> consumeAsyncLatest(
+            EventPattern<? super T, ? extends U> eventPattern,
+            BiFunction<? super S, ? super U, ? extends Callable<? extends R>> work,
+            AsyncResultConsumer<? super S, ? super U, ? super R> onFx,
+            Executor executor) {
+        LatestAsync<S> latest = new LatestAsync<>();
+        return process(eventPattern, (s, u) -> {
+            latest.submit(s, work.apply(s, u), r -> onFx.accept(s, u, r), executor);
+            return Result.CONSUME;
+        });
+    }
+
+    /**
+     * Same as {@link #consumeAsyncLatest(EventPattern, BiFunction, AsyncResultConsumer, Executor)}, using
+     * virtual threads when the JDK supports them and a pool of daemon threads otherwise.
+     */
+    public static <S, T extends Event, U extends T, R> InputMapTemplate<S, U> consumeAsyncLatest(
+            EventPattern<? super T, ? extends U> eventPattern,
+            BiFunction<? super S, ? super U, ? extends Callable<? extends R>> work,
+            AsyncResultConsumer<? super S, ? super U, ? super R> onFx) {
+        return consumeAsyncLatest(eventPattern, work, onFx, AsyncHandlers.defaultExecutor());
+    }
+
+    /**
+     * Template version of {@link InputMap#sequenceOf(KeyChords)}: all targets share the trie of key sequences,
+     * but each target keeps its own position within the sequences.
+     */
+    public static <S> InputMapTemplate<S, KeyEvent> sequenceOf(
+            KeyChords<? extends BiConsumer<? super S, ? super KeyEvent>> chords) {
+        KeySequenceMatcher<S, BiConsumer<? super S, ? super KeyEvent>> matcher = new KeySequenceMatcher<>(
+                chords.getBindings(), Durations.toNanos(chords.getTimeout()));
+        return process(EventPattern.keyPressed(), (s, e) -> matcher.advance(s, e, action -> action.accept(s, e)));
+    }
+
     /**
      * If the given {@link EventPattern} matches the given event type and {@code condition} is true,
      * consumes the event and does not attempt to match additional
@@ -334,15 +540,32 @@ public abstract class InputMapTemplate<S, E extends Event> {
     public static <S, T extends Event> InputMapTemplate<S, T> when(
             Predicate<? super S> condition, InputMapTemplate<S, T> imt) {
 
+        Function<InputHandlerTemplateMap<S, T>, InputHandlerTemplateMap<S, T>> guard = ihtm -> ihtm.map(
+                h -> (s, evt) -> condition.test(s) ? h.process(s, evt) : Result.PROCEED);
         return new InputMapTemplate<S, T>() {
             @Override
             protected InputHandlerTemplateMap<S, T> getInputHandlerTemplateMap() {
-                return imt.getInputHandlerTemplateMap().map(
-                        h -> (s, evt) -> condition.test(s) ? h.process(s, evt) : Result.PROCEED);
+                return guard.apply(imt.getInputHandlerTemplateMap());
+            }
+
+            @Override
+            protected InputHandlerTemplateMap<S, T> getInputHandlerTemplateMap(S target) {
+                return mapTargetHandlers(imt, target, guard);
             }
         };
     }
 
+    /**
+     * Template version of {@link InputMap#whenObservable(ObservableValue, InputMap)}: the template's instance
+     * for a target only has its handlers installed while the target's {@code condition} holds true, also when
+     * it is nested in other templates. The instances of a template containing such a condition therefore
+     * compile handlers of their own instead of sharing them with all other targets.
+     */
+    public static <S, T extends Event> InputMapTemplate<S, T> whenObservable(
+            Function<? super S, ? extends ObservableValue<Boolean>> condition, InputMapTemplate<S, T> imt) {
+        return new ObservableConditionTemplate<>(condition, imt);
+    }
+
     /**
      * When the given {@code condition} is false, pattern matches the event with the given {@link InputMap} or
      * proceeds to the next {@code InputMap} (if it exists).
@@ -356,11 +579,17 @@ public abstract class InputMapTemplate<S, E extends Event> {
             InputMapTemplate<T, E> imt,
             Function<? super S, ? extends T> f) {
 
+        Function<InputHandlerTemplateMap<T, E>, InputHandlerTemplateMap<S, E>> lift = ihtm -> ihtm.map(
+                h -> (s, evt) -> h.process(f.apply(s), evt));
         return new InputMapTemplate<S, E>() {
             @Override
             protected InputHandlerTemplateMap<S, E> getInputHandlerTemplateMap() {
-                return imt.getInputHandlerTemplateMap().map(
-                        h -> (s, evt) -> h.process(f.apply(s), evt));
+                return lift.apply(imt.getInputHandlerTemplateMap());
+            }
+
+            @Override
+            protected InputHandlerTemplateMap<S, E> getInputHandlerTemplateMap(S target) {
+                return mapTargetHandlers(imt, f.apply(target), lift);
             }
         };
     }
@@ -411,6 +640,34 @@ public abstract class InputMapTemplate<S, E extends Event> {
 class PatternActionTemplate<S, T extends Event, U extends T> extends InputMapTemplate<S, U> {
     static final BiFunction<Object, Object, Result> CONST_IGNORE = (x, y) -> Result.IGNORE;
 
+    /**
+     * Template version of the {@code ConsumeAction} of
+     * {@link InputMap#consume(EventPattern, java.util.function.Consumer)}.
+     */
+    static final class ConsumeAction<S, U> implements BiFunction<S, U, Result> {
+        private final BiConsumer<? super S, ? super U> action;
+
+        ConsumeAction(BiConsumer<? super S, ? super U> action) {
+            this.action = action;
+        }
+
+        @Override
+        public Result apply(S s, U u) {
+            action.accept(s, u);
+            return Result.CONSUME;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ConsumeAction && action.equals(((ConsumeAction<?, ?>) other).action);
+        }
+
+        @Override
+        public int hashCode() {
+            return action.hashCode();
+        }
+    }
+
     private final EventPattern<T, ? extends U> pattern;
     private final BiFunction<? super S, ? super U, InputHandler.Result> action;
 
@@ -422,7 +679,7 @@ class PatternActionTemplate<S, T extends Event, U extends T> extends InputMapTem
     @Override
     protected InputHandlerTemplateMap<S, U> getInputHandlerTemplateMap() {
         InputHandlerTemplateMap<S, U> ihtm = new InputHandlerTemplateMap<>();
-        InputHandlerTemplate<S, T> iht = (s, t) -> pattern.match(t).map(u -> action.apply(s, u)).orElse(Result.PROCEED);
+        InputHandlerTemplate<S, T> iht = new PatternHandlerTemplate<>(pattern, action);
         pattern.getEventTypes().forEach(et -> ihtm.insertAfter(et, iht));
         return ihtm;
     }
@@ -456,7 +713,26 @@ class TemplateChain<S, E extends Event> extends InputMapTemplate<S, E> {
     protected InputHandlerTemplateMap<S, E> getInputHandlerTemplateMap() {
         InputHandlerTemplateMap<S, E> ihtm = new InputHandlerTemplateMap<>();
         for(InputMapTemplate<S, ? extends E> imt: templates) {
-            imt.getInputHandlerTemplateMap().forEach(ihtm::insertAfter);
+            ihtm.insertAllAfter(imt.getInputHandlerTemplateMap());
+        }
+        return ihtm;
+    }
+
+    @Override
+    protected InputHandlerTemplateMap<S, E> getInputHandlerTemplateMap(S target) {
+        List<InputHandlerTemplateMap<S, ? extends E>> handlers = new ArrayList<>(templates.length);
+        boolean shared = true;
+        for(InputMapTemplate<S, ? extends E> imt: templates) {
+            InputHandlerTemplateMap<S, ? extends E> own = imt.getInputHandlerTemplateMap(target);
+            handlers.add(own != null ? own : imt.getSharedInputHandlerTemplateMap());
+            shared &= own == null;
+        }
+        if(shared) {
+            return null;
+        }
+        InputHandlerTemplateMap<S, E> ihtm = new InputHandlerTemplateMap<>();
+        for(InputHandlerTemplateMap<S, ? extends E> h: handlers) {
+            ihtm.insertAllAfter(h);
         }
         return ihtm;
     }
@@ -477,6 +753,42 @@ class TemplateChain<S, E extends Event> extends InputMapTemplate<S, E> {
     }
 }
 
+class ObservableConditionTemplate<S, E extends Event> extends InputMapTemplate<S, E> {
+    private final Function<? super S, ? extends ObservableValue<Boolean>> condition;
+    private final InputMapTemplate<S, E> template;
+
+    ObservableConditionTemplate(Function<? super S, ? extends ObservableValue<Boolean>> condition,
+            InputMapTemplate<S, E> template) {
+        this.condition = condition;
+        this.template = template;
+    }
+
+    @Override
+    protected InputHandlerTemplateMap<S, E> getInputHandlerTemplateMap(S target) {
+        ObservableValue<Boolean> cond = condition.apply(target);
+        InputMapDependencies.track(cond);
+        if(Boolean.TRUE.equals(cond.getValue())) {
+            InputHandlerTemplateMap<S, E> handlers = template.getInputHandlerTemplateMap(target);
+            return handlers != null ? handlers : template.getSharedInputHandlerTemplateMap();
+        } else {
+            return new InputHandlerTemplateMap<>();
+        }
+    }
+
+    /**
+     * Only used when the handlers are not requested for a target (i.e. via
+     * {@link #forEachEventType(HandlerTemplateConsumer)}); template instances use
+     * {@link #getInputHandlerTemplateMap(Object)}.
+     */
+    @Override
+    protected InputHandlerTemplateMap<S, E> getInputHandlerTemplateMap() {
+        return template.getInputHandlerTemplateMap().map(
+                h -> (s, evt) -> Boolean.TRUE.equals(condition.apply(s).getValue())
+                        ? h.process(s, evt)
+                        : Result.PROCEED);
+    }
+}
+
 class InputMapTemplateInstance<S, E extends Event> implements InputMap<E> {
     private final InputMapTemplate<S, E> template;
     private final S target;
@@ -488,8 +800,7 @@ class InputMapTemplateInstance<S, E extends Event> implements InputMap<E> {
 
     @Override
     public void forEachEventType(HandlerConsumer<? super E> hc) {
-        template.forEachEventType(
-                InputMapTemplate.HandlerTemplateConsumer.from(hc, target));
+        template.forEachEventType(target, InputMapTemplate.HandlerTemplateConsumer.from(hc, target));
     }
 
     @Override
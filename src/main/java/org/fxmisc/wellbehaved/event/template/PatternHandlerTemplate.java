@@ -0,0 +1,42 @@
+package org.fxmisc.wellbehaved.event.template;
+
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import javafx.event.Event;
+
+import org.fxmisc.wellbehaved.event.EventAttribute;
+import org.fxmisc.wellbehaved.event.EventPattern;
+import org.fxmisc.wellbehaved.event.InputHandler;
+import org.fxmisc.wellbehaved.event.InputHandler.Result;
+import org.fxmisc.wellbehaved.event.internal.InputMonitors;
+
+/**
+ * The handler of a {@link PatternActionTemplate}; exposes its pattern's attribute test to
+ * {@link InputHandlerTemplateMap}.
+ */
+class PatternHandlerTemplate<S, T extends Event, U extends T> implements InputHandlerTemplate<S, T> {
+    private final EventPattern<T, ? extends U> pattern;
+    private final BiFunction<? super S, ? super U, InputHandler.Result> action;
+
+    PatternHandlerTemplate(EventPattern<T, ? extends U> pattern, BiFunction<? super S, ? super U, InputHandler.Result> action) {
+        this.pattern = pattern;
+        this.action = action;
+    }
+
+    EventAttribute.Test<?> getAttributeTest() {
+        return pattern.getAttributeTest().orElse(null);
+    }
+
+    @Override
+    public Result process(S state, T event) {
+        Optional<? extends U> match = pattern.match(event);
+        if(!match.isPresent()) {
+            return Result.PROCEED;
+        }
+        // without monitors, run the action directly, without capturing the state in a lambda
+        return InputMonitors.isActive()
+                ? InputMonitors.handle(pattern, match.get(), v -> action.apply(state, v))
+                : action.apply(state, match.get());
+    }
+}
@@ -8,7 +8,19 @@ import static org.junit.Assert.*;
 
 import javafx.embed.swing.JFXPanel;
 import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.InputEvent;
+import javafx.scene.input.KeyCharacterCombination;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination.ModifierValue;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -85,6 +97,164 @@ public class EventPatternTest {
         assertMatchFailure(p_a_Typed, eShift_a_Typed); // modifier is pressed
     }
 
+    @Test
+    public void composedGuardsTest() {
+        EventPattern<Event, KeyEvent> pattern = keyPressed()
+                .onlyIf(e -> e.getCode().isLetterKey())
+                .unless(e -> e.getCode() == Q)
+                .andThen(keyPressed().onlyIf(KeyEvent::isShiftDown).unless(KeyEvent::isControlDown))
+                .onlyIf(e -> e.getCode() != Z);
+
+        assertMatchSuccess(pattern, new KeyEvent(KEY_PRESSED, "", "", A, true, false, false, false));
+        assertMatchFailure(pattern, new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false));
+        assertMatchFailure(pattern, new KeyEvent(KEY_PRESSED, "", "", A, true, true, false, false));
+        assertMatchFailure(pattern, new KeyEvent(KEY_PRESSED, "", "", Q, true, false, false, false));
+        assertMatchFailure(pattern, new KeyEvent(KEY_PRESSED, "", "", Z, true, false, false, false));
+        assertMatchFailure(pattern, new KeyEvent(KEY_PRESSED, "", "", DIGIT1, true, false, false, false));
+        assertMatchFailure(pattern, new KeyEvent(KEY_RELEASED, "", "", A, true, false, false, false));
+        assertEquals(keyPressed().getEventTypes(), pattern.getEventTypes());
+
+        // the attribute test of a built-in pattern survives composition
+        assertEquals(C, keyPressed(C, SHORTCUT_DOWN).onlyIf(e -> true).getAttributeTest().get().getValues().iterator().next());
+    }
+
+    @Test
+    public void andThenKeepsTheAttributeTestOnlyOfUntransformedEvents() {
+        EventPattern<Event, KeyEvent> typedAsA = new EventPattern<Event, KeyEvent>() {
+            @Override
+            public Optional<KeyEvent> match(Event event) {
+                return event.getEventType() == KEY_TYPED
+                        ? Optional.of(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false))
+                        : Optional.empty();
+            }
+
+            @Override
+            public Set<EventType<? extends KeyEvent>> getEventTypes() {
+                return Collections.singleton(KEY_TYPED);
+            }
+        };
+
+        assertTrue(keyPressed().andThen(keyPressed(A)).getAttributeTest().isPresent());
+        EventPattern<Event, KeyEvent> pattern = typedAsA.andThen(keyPressed(A));
+        assertFalse(pattern.getAttributeTest().isPresent());
+        assertMatchSuccess(pattern, new KeyEvent(KEY_TYPED, "b", "", UNDEFINED, false, false, false, false));
+    }
+
+    @Test
+    public void anyOfOnlyTriesPatternsOfTheEventsType() {
+        int[] mouseTests = { 0 };
+        EventPattern<Event, ? extends InputEvent> pattern = anyOf(
+                keyPressed(A, SHORTCUT_DOWN),
+                mousePressed().onlyIf(e -> ++mouseTests[0] > 0),
+                keyTyped("c"),
+                eventType(InputEvent.ANY).onlyIf(e -> e instanceof KeyEvent && ((KeyEvent) e).getCode() == B));
+
+        assertTrue(pattern.match(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, true)).isPresent()
+                || pattern.match(new KeyEvent(KEY_PRESSED, "", "", A, false, true, false, false)).isPresent());
+        assertTrue(pattern.match(new KeyEvent(KEY_TYPED, "c", "", UNDEFINED, false, false, false, false)).isPresent());
+        assertTrue(pattern.match(new KeyEvent(KEY_RELEASED, "", "", B, false, false, false, false)).isPresent());
+        assertFalse(pattern.match(new KeyEvent(KEY_RELEASED, "", "", C, false, false, false, false)).isPresent());
+        assertEquals(0, mouseTests[0]);
+
+        assertEquals(4, pattern.getEventTypes().size());
+        assertSame(pattern.getEventTypes(), pattern.getEventTypes());
+    }
+
+    @Test
+    public void anyOfTriesPatternsWithoutEventTypesOnEveryEvent() {
+        EventPattern<Event, KeyEvent> untyped = new EventPattern<Event, KeyEvent>() {
+            @Override
+            public Optional<KeyEvent> match(Event event) {
+                return event instanceof KeyEvent && ((KeyEvent) event).getCode() == B
+                        ? Optional.of((KeyEvent) event)
+                        : Optional.empty();
+            }
+
+            @Override
+            public Set<EventType<? extends KeyEvent>> getEventTypes() {
+                return Collections.emptySet();
+            }
+        };
+        EventPattern<Event, KeyEvent> pattern = anyOf(keyTyped("c"), untyped);
+
+        assertTrue(pattern.match(new KeyEvent(KEY_RELEASED, "", "", B, false, false, false, false)).isPresent());
+        assertFalse(pattern.match(new KeyEvent(KEY_RELEASED, "", "", C, false, false, false, false)).isPresent());
+    }
+
+    @Test
+    public void builtInPatternsAreValues() {
+        assertSame(keyPressed(C, SHORTCUT_DOWN), keyPressed(C, SHORTCUT_DOWN));
+        assertSame(keyReleased(C), keyReleased(new KeyCodeCombination(C)));
+        assertNotEquals(keyPressed(C), keyReleased(C));
+        assertNotEquals(keyPressed(C), keyPressed(C, SHIFT_ANY));
+
+        assertEquals(keyPressed(), keyPressed());
+        assertEquals(keyTyped("a", SHIFT_ANY), keyTyped("a", SHIFT_ANY));
+        assertNotEquals(keyTyped("a"), keyTyped("a", SHIFT_ANY));
+        assertEquals(keyPressed("a", ALT_DOWN), keyPressed("a", ALT_DOWN));
+        assertEquals(mousePressed(MouseButton.PRIMARY), mousePressed(MouseButton.PRIMARY));
+        assertNotEquals(mousePressed(MouseButton.PRIMARY), mouseReleased(MouseButton.PRIMARY));
+
+        Consumer<KeyEvent> action = e -> {};
+        assertEquals(InputMap.consume(keyPressed(C, SHORTCUT_DOWN), action),
+                InputMap.consume(keyPressed(C, SHORTCUT_DOWN), action));
+    }
+
+    @Test
+    public void modifierMasksMatchLikeKeyCombinations() {
+        ModifierValue[] values = ModifierValue.values();
+        for(ModifierValue shift: values) for(ModifierValue ctrl: values) for(ModifierValue alt: values)
+        for(ModifierValue meta: values) for(ModifierValue shortcut: values) {
+            KeyCodeCombination combination = new KeyCodeCombination(A, shift, ctrl, alt, meta, shortcut);
+            EventPattern<Event, KeyEvent> pattern = keyPressed(combination);
+            for(int mods = 0; mods < 16; ++mods) {
+                KeyEvent event = new KeyEvent(KEY_PRESSED, "", "", A,
+                        (mods & 1) != 0, (mods & 2) != 0, (mods & 4) != 0, (mods & 8) != 0);
+                assertEquals(combination + " " + mods, combination.match(event), pattern.match(event).isPresent());
+            }
+        }
+    }
+
+    @Test
+    public void keyCharacterPatternsMatchLikeKeyCharacterCombinations() {
+        KeyCharacterCombination combination = new KeyCharacterCombination("a", SHIFT_ANY);
+        EventPattern<Event, KeyEvent> pattern = keyPressed(combination);
+        KeyEvent[] events = {
+                new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false),
+                new KeyEvent(KEY_PRESSED, "", "", A, true, false, false, false),
+                new KeyEvent(KEY_PRESSED, "", "", B, false, false, false, false),
+                new KeyEvent(KEY_PRESSED, "", "", A, false, false, true, false),
+                new KeyEvent(KEY_PRESSED, "", "", UNDEFINED, false, false, false, false),
+        };
+        for(int i = 0; i < 2; ++i) {
+            for(KeyEvent event: events) {
+                assertEquals(event.toString(), combination.match(event), pattern.match(event).isPresent());
+            }
+            KeyboardLayout.changed(); // resolved again on the next match
+        }
+        assertEquals(pattern, keyPressed("a", SHIFT_ANY));
+    }
+
+    @Test
+    public void keyCodeSetAndCharRangePatternsTest() {
+        EventPattern<Event, KeyEvent> arrows = keyPressed(EnumSet.of(LEFT, RIGHT, UP, DOWN), SHIFT_ANY);
+        assertMatchSuccess(arrows, new KeyEvent(KEY_PRESSED, "", "", LEFT, false, false, false, false));
+        assertMatchSuccess(arrows, new KeyEvent(KEY_PRESSED, "", "", DOWN, true, false, false, false));
+        assertMatchFailure(arrows, new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false));
+        assertMatchFailure(arrows, new KeyEvent(KEY_PRESSED, "", "", UP, false, true, false, false));
+        assertMatchFailure(arrows, new KeyEvent(KEY_RELEASED, "", "", UP, false, false, false, false));
+        assertEquals(arrows, keyPressed(EnumSet.of(UP, DOWN, LEFT, RIGHT), SHIFT_ANY));
+        assertEquals(4, arrows.getAttributeTest().get().getValues().size());
+
+        EventPattern<Event, KeyEvent> hexDigits = keyTyped(CharRange.DIGITS.or(CharRange.of('a', 'f')));
+        assertMatchSuccess(hexDigits, new KeyEvent(KEY_TYPED, "7", "", UNDEFINED, false, false, false, false));
+        assertMatchSuccess(hexDigits, new KeyEvent(KEY_TYPED, "c", "", UNDEFINED, false, false, false, false));
+        assertMatchFailure(hexDigits, new KeyEvent(KEY_TYPED, "g", "", UNDEFINED, false, false, false, false));
+        assertMatchFailure(hexDigits, new KeyEvent(KEY_TYPED, "7", "", UNDEFINED, false, true, false, false));
+        assertEquals("[0-9a-f]", CharRange.DIGITS.or(CharRange.of('a', 'f')).toString());
+        assertEquals(16, hexDigits.getAttributeTest().get().getValues().size());
+    }
+
     private void assertMatchSuccess(EventPattern<Event, KeyEvent> pattern, KeyEvent event) {
         assertTrue(pattern.match(event).isPresent());
     }
@@ -1,6 +1,7 @@
 package org.fxmisc.wellbehaved.event;
 
 import static javafx.scene.input.KeyCode.*;
+import static javafx.scene.input.KeyCombination.*;
 import static javafx.scene.input.KeyEvent.*;
 import static org.fxmisc.wellbehaved.event.EventPattern.*;
 import static org.fxmisc.wellbehaved.event.InputHandler.Result.*;
@@ -8,6 +9,8 @@ import static org.fxmisc.wellbehaved.event.InputMap.*;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -17,16 +20,36 @@ import javafx.beans.property.StringProperty;
 import javafx.embed.swing.JFXPanel;
 import javafx.event.Event;
 import javafx.event.EventType;
+import javafx.scene.Group;
 import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.input.InputEvent;
+import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
 import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import org.fxmisc.wellbehaved.event.InputMap.HandlerConsumer;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 import java.util.function.Supplier;
 
 public class InputMapTest {
@@ -458,4 +481,1058 @@ public class InputMapTest {
         assertTrue(up.isConsumed());
     }
 
+    @Test
+    public void inputStateTracksHeldKeysAndButtons() {
+        Region node = new Region();
+        InputState state = InputState.of(node);
+        assertSame(state, InputState.of(node));
+
+        // events consumed by input maps are tracked as well
+        Nodes.addInputMap(node, consume(keyPressed(W)));
+        node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", W, false, false, false, false));
+        node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", SHIFT, true, false, false, false));
+        node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", W, true, false, false, false)); // auto-repeat
+        assertTrue(state.isDown(W));
+        assertTrue(state.isDown(SHIFT));
+        assertFalse(state.isDown(A));
+        assertEquals(2, state.getKeyDownCount());
+
+        node.fireEvent(new KeyEvent(KEY_RELEASED, "", "", W, true, false, false, false));
+        assertFalse(state.isDown(W));
+        assertEquals(1, state.getKeyDownCount());
+
+        node.fireEvent(new MouseEvent(MouseEvent.MOUSE_PRESSED, 0, 0, 0, 0, MouseButton.SECONDARY, 1,
+                false, false, false, false, false, false, true, false, false, true, null));
+        assertTrue(state.isDown(MouseButton.SECONDARY));
+        assertFalse(state.isDown(MouseButton.PRIMARY));
+
+        state.clear();
+        assertFalse(state.isAnyKeyDown());
+        assertFalse(state.isAnyButtonDown());
+
+        state.dispose();
+        node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", W, false, false, false, false));
+        assertFalse(state.isDown(W));
+        assertNotSame(state, InputState.of(node));
+    }
+
+    @Test
+    public void inputStateIsClearedWhenTheFocusLeavesTheNode() {
+        runOnFxThread(() -> {
+            Region inner = new Region();
+            Region outside = new Region();
+            Pane node = new Pane(inner);
+            new Scene(new Group(node, outside));
+            InputState state = InputState.of(node);
+
+            inner.requestFocus();
+            inner.fireEvent(new KeyEvent(KEY_PRESSED, "", "", W, false, false, false, false));
+            assertTrue(state.isDown(W));
+
+            // the focus moves within the node
+            node.requestFocus();
+            assertTrue(state.isDown(W));
+
+            outside.requestFocus();
+            assertFalse(state.isAnyKeyDown());
+
+            // removing the node from the scene clears the state as well
+            inner.requestFocus();
+            inner.fireEvent(new KeyEvent(KEY_PRESSED, "", "", W, false, false, false, false));
+            assertTrue(state.isDown(W));
+            ((Group) node.getParent()).getChildren().remove(node);
+            assertFalse(state.isAnyKeyDown());
+        });
+    }
+
+    @Test
+    public void sceneInputStateTest() {
+        runOnFxThread(() -> {
+            Region node = new Region();
+            Scene scene = new Scene(new Group(node));
+            InputState state = InputState.of(scene);
+            assertSame(state, InputState.of(scene));
+
+            node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", W, false, false, false, false));
+            node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false));
+            node.fireEvent(new KeyEvent(KEY_RELEASED, "", "", A, false, false, false, false));
+            assertTrue(state.isDown(W));
+            assertFalse(state.isDown(A));
+            assertEquals("InputState[W]", state.toString());
+
+            // the scene moves to a window
+            Stage stage = new Stage();
+            stage.setScene(scene);
+            assertFalse(state.isAnyKeyDown());
+
+            node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", W, false, false, false, false));
+            assertTrue(state.isDown(W));
+            state.dispose();
+            assertFalse(state.isAnyKeyDown());
+            assertNotSame(state, InputState.of(scene));
+        });
+    }
+
+    @Test
+    public void mousePressedInRegionTest() {
+        StringProperty res = new SimpleStringProperty();
+        RegionIndex<String> regions = new RegionIndex<>(10);
+        regions.put("a", 0, 0, 15, 5);
+        regions.put("b", 12, 0, 10, 10); // overlaps "a", on top of it
+
+        Region node = new Region();
+        Nodes.addInputMap(node, consume(mousePressedIn(regions), e -> res.set(e.getRegion())));
+
+        node.fireEvent(mousePressedAt(3, 3));
+        assertEquals("a", res.get());
+
+        node.fireEvent(mousePressedAt(13, 3));
+        assertEquals("b", res.get());
+
+        res.set(null);
+        node.fireEvent(mousePressedAt(30, 3));
+        assertNull(res.get());
+
+        // move "a" on top of "b", then remove it
+        regions.put("a", 10, 0, 5, 5);
+        node.fireEvent(mousePressedAt(13, 3));
+        assertEquals("a", res.get());
+        assertTrue(regions.remove("a"));
+        node.fireEvent(mousePressedAt(13, 3));
+        assertEquals("b", res.get());
+        res.set(null);
+        node.fireEvent(mousePressedAt(3, 3));
+        assertNull(res.get());
+    }
+
+    @Test
+    public void regionInputMapCallbacksGetRegionEvents() {
+        List<String> res = new ArrayList<>();
+        RegionIndex<String> regions = new RegionIndex<>(10);
+        regions.put("a", 0, 0, 10, 10);
+
+        Region node = new Region();
+        Pane parent = new Pane(node);
+        parent.addEventHandler(MouseEvent.ANY, e -> res.add("parent " + e.getEventType()));
+        Nodes.addInputMap(node, sequence(
+                consume(mousePressedIn(regions)).ifConsumed(e -> res.add("consumed " + e.getRegion())),
+                process(mouseReleasedIn(regions), e -> PROCEED).ifProcessed(e -> res.add("processed " + e.getRegion())),
+                process(mouseMovedIn(regions), e -> IGNORE).ifIgnored(e -> res.add("ignored " + e.getRegion()))));
+
+        // consuming the region event consumes the mouse event
+        node.fireEvent(mousePressedAt(3, 3));
+        assertEquals(Arrays.asList("consumed a"), res);
+        res.clear();
+        node.fireEvent(mouseEvent(MouseEvent.MOUSE_RELEASED, 3, 1));
+        assertEquals(Arrays.asList("processed a", "parent MOUSE_RELEASED"), res);
+        res.clear();
+        node.fireEvent(mouseMovedTo(3, 3));
+        assertEquals(Arrays.asList("ignored a", "parent MOUSE_MOVED"), res);
+        res.clear();
+
+        // no region event for a mouse event that the input map consumed before
+        Nodes.addInputMap(node, consume(mousePressed(), e -> res.add("pressed")));
+        node.fireEvent(mousePressedAt(3, 3));
+        assertEquals(Arrays.asList("pressed"), res);
+    }
+
+    @Test
+    public void regionHoverTest() throws InterruptedException {
+        List<String> res = new ArrayList<>();
+        RegionIndex<String> regions = new RegionIndex<>(10);
+        regions.put("a", 0, 0, 10, 10);
+        regions.put("b", 12, 0, 10, 10);
+
+        Region node = new Region();
+        Nodes.addInputMap(node, sequence(
+                consume(regionEntered(regions), e -> res.add("entered " + e.getRegion())),
+                consume(regionExited(regions), e -> res.add("exited " + e.getRegion())),
+                consume(regionHovered(regions), e -> res.add("hovered " + e.getRegion()))));
+
+        // only the final transition of each pulse is fired
+        assertEquals(Arrays.asList("entered b", "hovered b"), afterNextPulse(res, () -> {
+            node.fireEvent(mouseMovedTo(3, 3));
+            node.fireEvent(mouseMovedTo(13, 13));
+            node.fireEvent(mouseMovedTo(30, 30));
+            node.fireEvent(mouseMovedTo(15, 15));
+        }));
+        assertEquals(Arrays.asList("hovered b"), afterNextPulse(res, () -> node.fireEvent(mouseMovedTo(16, 16))));
+        assertEquals(Arrays.asList("exited b", "entered a", "hovered a"),
+                afterNextPulse(res, () -> node.fireEvent(mouseMovedTo(5, 5))));
+        assertEquals(Arrays.asList("exited a"), afterNextPulse(res, () -> node.fireEvent(
+                new MouseEvent(MouseEvent.MOUSE_EXITED, 5, 5, 5, 5, MouseButton.NONE, 0,
+                        false, false, false, false, false, false, false, false, false, false, null))));
+    }
+
+    @Test
+    public void regionHoverFollowsConsumedMouseEvents() throws InterruptedException {
+        List<String> res = new ArrayList<>();
+        RegionIndex<String> regions = new RegionIndex<>(10);
+        regions.put("a", 0, 0, 10, 10);
+        regions.put("b", 12, 0, 10, 10);
+
+        Region node = new Region();
+        Nodes.addInputMap(node, sequence(
+                consume(mouseMoved()),
+                consume(regionHovered(regions), e -> res.add("hovered " + e.getRegion()))));
+
+        // the mouse moves are consumed before the hover pattern sees them
+        assertEquals(Arrays.asList("hovered a"), afterNextPulse(res, () -> node.fireEvent(mouseMovedTo(5, 5))));
+        assertEquals(Arrays.asList("hovered b"), afterNextPulse(res, () -> node.fireEvent(mouseMovedTo(15, 15))));
+    }
+
+    @Test
+    public void regionHoverFollowsTheInstalledInputMaps() throws InterruptedException {
+        List<String> res = new ArrayList<>();
+        RegionIndex<String> regions = new RegionIndex<>(10);
+        regions.put("a", 0, 0, 10, 10);
+
+        Region node = new Region();
+        // sees all the hover events fired on the node
+        node.addEventHandler(RegionEvent.ANY, e -> res.add(e.getEventType().getSuperType().getName()));
+        InputMap<RegionEvent<String>> hover = sequence(
+                process(regionEntered(regions), e -> IGNORE).ifIgnored(e -> res.add("ignored " + e.getRegion())),
+                process(regionHovered(regions), e -> PROCEED).ifProcessed(e -> res.add("processed " + e.getRegion())));
+        InputMap<RegionEvent<String>> exit = consume(regionExited(regions))
+                .ifConsumed(e -> res.add("consumed " + e.getRegion()));
+        Nodes.addInputMap(node, hover);
+        Nodes.addInputMap(node, exit);
+
+        // two input maps of the same index track the mouse once
+        assertEquals(Arrays.asList("ignored a", "REGION_ENTERED", "processed a", "REGION_HOVERED"),
+                afterNextPulse(res, () -> node.fireEvent(mouseMovedTo(5, 5))));
+        assertEquals(Arrays.asList("consumed a", "REGION_EXITED"),
+                afterNextPulse(res, () -> node.fireEvent(mouseMovedTo(15, 15))));
+
+        // removing the input maps stops the tracking, also of mouse moves in the last pulse
+        Nodes.removeInputMap(node, exit);
+        assertEquals(Arrays.asList("ignored a", "REGION_ENTERED", "processed a", "REGION_HOVERED"),
+                afterNextPulse(res, () -> node.fireEvent(mouseMovedTo(5, 5))));
+        assertEquals(Collections.emptyList(), afterNextPulse(res, () -> {
+            node.fireEvent(mouseMovedTo(15, 15));
+            Nodes.removeInputMap(node, hover);
+        }));
+        assertEquals(Collections.emptyList(), afterNextPulse(res, () -> node.fireEvent(mouseMovedTo(5, 5))));
+    }
+
+    @Test
+    public void consumeKeyRepeatsTest() throws InterruptedException {
+        List<String> res = new ArrayList<>();
+        Region node = new Region();
+        Nodes.addInputMap(node, consumeKeyRepeats(keyPressed(DOWN), (e, count) -> res.add(e.getCode() + " x" + count)));
+
+        // the first press runs right away, the repeats of the pulse run once at the next pulse
+        assertEquals(Arrays.asList("DOWN x1", "DOWN x3"), afterNextPulse(res, () -> {
+            for(int i = 0; i < 4; ++i) {
+                node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", DOWN, false, false, false, false));
+            }
+            node.fireEvent(new KeyEvent(KEY_RELEASED, "", "", DOWN, false, false, false, false));
+        }));
+
+        // after the release, a press is a first press again
+        assertEquals(Arrays.asList("DOWN x1", "DOWN x1"), afterNextPulse(res, () -> {
+            node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", DOWN, false, false, false, false));
+            node.fireEvent(new KeyEvent(KEY_RELEASED, "", "", DOWN, false, false, false, false));
+            node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", DOWN, false, false, false, false));
+        }));
+    }
+
+    @Test
+    public void keyRepeatsAreResetWhenTheFocusLeavesTheNode() throws InterruptedException {
+        List<String> res = new ArrayList<>();
+        Region node = new Region();
+        Region other = new Region();
+        Nodes.addInputMap(node, consumeKeyRepeats(keyPressed(DOWN), (e, count) -> res.add(e.getCode() + " x" + count)));
+        FutureTask<Stage> shown = new FutureTask<>(() -> {
+            Platform.setImplicitExit(false); // hiding the stage must not stop the toolkit for the other tests
+            Stage s = new Stage();
+            s.setScene(new Scene(new Group(node, other)));
+            s.show();
+            return s;
+        });
+        Platform.runLater(shown);
+        Stage stage = get(shown);
+
+        // the release goes elsewhere, so the press after refocusing is a first press
+        try {
+            assertEquals(Arrays.asList("DOWN x1", "focused true", "DOWN x1", "dispatched"), afterNextPulse(res, () -> {
+                node.requestFocus();
+                node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", DOWN, false, false, false, false));
+                res.add("focused " + node.isFocused());
+                other.requestFocus();
+                node.requestFocus();
+                node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", DOWN, false, false, false, false));
+                res.add("dispatched");
+            }));
+        } finally {
+            runOnFxThread(stage::hide);
+        }
+    }
+
+    @Test
+    public void keyRepeatsDoNotWatchTheFocusAfterTheRelease() {
+        List<String> res = new ArrayList<>();
+        Region node = new Region();
+        ObjIntConsumer<KeyEvent> action = (e, count) -> res.add(e.getCode() + " x" + count);
+        InputMap<KeyEvent> im = consumeKeyRepeats(keyPressed(DOWN), action);
+        Nodes.addInputMap(node, im);
+        node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", DOWN, false, false, false, false));
+        node.fireEvent(new KeyEvent(KEY_RELEASED, "", "", DOWN, false, false, false, false));
+        assertEquals(Arrays.asList("DOWN x1"), res);
+
+        // nothing on the node references the action once the input map is removed
+        Nodes.removeInputMap(node, im);
+        WeakReference<ObjIntConsumer<KeyEvent>> ref = new WeakReference<>(action);
+        action = null;
+        im = null;
+        for(int i = 0; i < 10 && ref.get() != null; ++i) {
+            System.gc();
+        }
+        assertNull(ref.get());
+    }
+
+    /**
+     * Runs the given action on the JavaFX thread, waits for the next pulse and returns (and clears) the results.
+     */
+    private static List<String> afterNextPulse(List<String> res, Runnable action) throws InterruptedException {
+        CountDownLatch nextPulse = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            res.clear();
+            action.run();
+            new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    stop();
+                    nextPulse.countDown();
+                }
+            }.start();
+        });
+        assertTrue(nextPulse.await(5, TimeUnit.SECONDS));
+        FutureTask<List<String>> result = new FutureTask<>(() -> new ArrayList<>(res));
+        Platform.runLater(result);
+        return get(result);
+    }
+
+    @Test
+    public void dragThresholdTest() {
+        List<Double> res = new ArrayList<>();
+        Region node = new Region();
+        Nodes.addInputMap(node, consume(mouseDragged(MouseButton.PRIMARY, 5), e -> res.add(e.getScreenX())));
+
+        node.fireEvent(mouseEvent(MouseEvent.MOUSE_PRESSED, 10, 1));
+        node.fireEvent(mouseEvent(MouseEvent.MOUSE_DRAGGED, 12, 1));
+        node.fireEvent(mouseEvent(MouseEvent.MOUSE_DRAGGED, 20, 1));
+        node.fireEvent(mouseEvent(MouseEvent.MOUSE_DRAGGED, 11, 1)); // back within the threshold, still dragging
+        node.fireEvent(mouseEvent(MouseEvent.MOUSE_RELEASED, 11, 1));
+        node.fireEvent(mouseEvent(MouseEvent.MOUSE_DRAGGED, 30, 1)); // no longer pressed
+        assertEquals(Arrays.asList(20.0, 11.0), res);
+    }
+
+    @Test
+    public void longPressAndSingleClickTest() throws InterruptedException {
+        List<String> res = new ArrayList<>();
+        CountDownLatch longPressed = new CountDownLatch(1);
+        CountDownLatch singleClicked = new CountDownLatch(1);
+        Region node = new Region();
+        Nodes.addInputMap(node, sequence(
+                consume(mouseLongPressed(MouseButton.PRIMARY, Duration.millis(50)), e -> {
+                    res.add("long press at " + e.getScreenX());
+                    longPressed.countDown();
+                }),
+                consume(mouseSingleClicked(MouseButton.PRIMARY, Duration.millis(50)), e -> {
+                    res.add("single click at " + e.getScreenX());
+                    singleClicked.countDown();
+                }),
+                consume(mouseDoubleClicked(MouseButton.PRIMARY), e -> res.add("double click"))));
+
+        Platform.runLater(() -> {
+            // moving cancels the first long press, releasing the second one; the third one is held
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_PRESSED, 1, 1));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_DRAGGED, 20, 1));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_RELEASED, 20, 1));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_PRESSED, 2, 1));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_RELEASED, 2, 1));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_PRESSED, 3, 1));
+        });
+        assertTrue(longPressed.await(5, TimeUnit.SECONDS));
+
+        Platform.runLater(() -> {
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_RELEASED, 3, 1));
+            res.add("released");
+            // the first click is followed by a second one, the third one is single
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_CLICKED, 4, 1));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_PRESSED, 4, 2));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_RELEASED, 4, 2));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_CLICKED, 4, 2));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_CLICKED, 5, 1));
+        });
+        assertTrue(singleClicked.await(5, TimeUnit.SECONDS));
+
+        FutureTask<List<String>> result = new FutureTask<>(() -> new ArrayList<>(res));
+        Platform.runLater(result);
+        assertEquals(Arrays.asList("long press at 3.0", "released", "double click", "single click at 5.0"), get(result));
+    }
+
+    @Test
+    public void gesturePatternsTrackConsumedEvents() throws InterruptedException {
+        List<String> res = new ArrayList<>();
+        CountDownLatch longPressed = new CountDownLatch(1);
+        Region node = new Region();
+        EventPattern<Event, MouseEvent> pressOrLongPress = anyOf(
+                mousePressed(MouseButton.PRIMARY), mouseLongPressed(MouseButton.PRIMARY, Duration.millis(50)));
+        InputMap<MouseEvent> im = sequence(
+                // the press matches the first alternative and is consumed before the drag pattern
+                consume(pressOrLongPress, e -> {
+                    if(e.getEventType() == MouseEvent.MOUSE_PRESSED) {
+                        res.add("pressed");
+                    } else {
+                        res.add("long pressed at " + e.getScreenX());
+                        longPressed.countDown();
+                    }
+                }),
+                consume(mouseDragged(MouseButton.PRIMARY, 5), e -> res.add("dragged at " + e.getScreenX())));
+        Nodes.addInputMap(node, im);
+
+        Platform.runLater(() -> node.fireEvent(mouseEvent(MouseEvent.MOUSE_PRESSED, 10, 1)));
+        assertTrue(longPressed.await(5, TimeUnit.SECONDS));
+        FutureTask<List<String>> result = new FutureTask<>(() -> {
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_DRAGGED, 12, 1));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_DRAGGED, 20, 1));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_RELEASED, 20, 1));
+            return new ArrayList<>(res);
+        });
+        Platform.runLater(result);
+        assertEquals(Arrays.asList("pressed", "long pressed at 10.0", "dragged at 20.0"), get(result));
+
+        // removing the input map stops the tracking
+        res.clear();
+        Platform.runLater(() -> {
+            Nodes.removeInputMap(node, im);
+            node.addEventHandler(MouseGestures.MOUSE_LONG_PRESSED, e -> res.add("long pressed"));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_PRESSED, 10, 1));
+        });
+        Thread.sleep(200);
+        result = new FutureTask<>(() -> new ArrayList<>(res));
+        Platform.runLater(result);
+        assertEquals(Collections.emptyList(), get(result));
+    }
+
+    private static MouseEvent mouseEvent(EventType<MouseEvent> type, double screenX, int clickCount) {
+        return new MouseEvent(type, 0, 0, screenX, 0, MouseButton.PRIMARY, clickCount,
+                false, false, false, false, type != MouseEvent.MOUSE_RELEASED, false, false,
+                false, false, true, null);
+    }
+
+    private static MouseEvent mousePressedAt(double x, double y) {
+        return new MouseEvent(MouseEvent.MOUSE_PRESSED, x, y, x, y, MouseButton.PRIMARY, 1,
+                false, false, false, false, true, false, false, false, false, true, null);
+    }
+
+    @Test
+    public void whenObservableTest() {
+        StringProperty res = new SimpleStringProperty();
+        BooleanProperty enabled = new SimpleBooleanProperty(false);
+
+        Region node = new Region();
+        Nodes.addInputMap(node, whenObservable(enabled, consume(keyPressed(UP), e -> res.set("Up"))));
+
+        // disabled input map does not install any handlers
+        node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", UP, false, false, false, false));
+        assertNull(res.get());
+
+        enabled.set(true);
+        node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", UP, false, false, false, false));
+        assertEquals("Up", res.get());
+
+        res.set(null);
+        enabled.set(false);
+        node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", UP, false, false, false, false));
+        assertNull(res.get());
+
+        // removed input map no longer reacts to the observable
+        Nodes.removeInputMap(node, Nodes.getInputMap(node));
+        enabled.set(true);
+        node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", UP, false, false, false, false));
+        assertNull(res.get());
+    }
+
+    @Test
+    public void compiledAttributeTestsPreserveOrder() {
+        List<String> res = new ArrayList<>();
+
+        InputMap<KeyEvent> im = sequence(
+                consume(keyPressed(A, SHIFT_DOWN), e -> res.add("Shift+A")),
+                consume(keyPressed(B), e -> res.add("B")),
+                process(keyPressed(A), e -> { res.add("A before"); return PROCEED; }),
+                process(keyPressed(), e -> { res.add("any"); return PROCEED; }),
+                consume(keyPressed(C), e -> res.add("C")),
+                consume(keyPressed(A), e -> res.add("A")),
+                consume(keyPressed(C), e -> res.add("C again")));
+
+        dispatch(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false), im);
+        assertEquals(Arrays.asList("A before", "any", "A"), res);
+
+        res.clear();
+        dispatch(new KeyEvent(KEY_PRESSED, "", "", A, true, false, false, false), im);
+        assertEquals(Arrays.asList("Shift+A"), res);
+
+        res.clear();
+        dispatch(new KeyEvent(KEY_PRESSED, "", "", C, false, false, false, false), im);
+        assertEquals(Arrays.asList("any", "C"), res);
+
+        res.clear();
+        dispatch(new KeyEvent(KEY_PRESSED, "", "", D, false, false, false, false), im);
+        assertEquals(Arrays.asList("any"), res);
+    }
+
+    @Test
+    public void compiledKeyCodeSetsPreserveOrder() {
+        List<String> res = new ArrayList<>();
+
+        InputMap<KeyEvent> im = sequence(
+                process(keyPressed(EnumSet.of(A, B)), e -> { res.add("A or B"); return PROCEED; }),
+                consume(keyPressed(B), e -> res.add("B")),
+                consume(keyPressed(EnumSet.of(A, C)), e -> res.add("A or C")));
+
+        dispatch(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false), im);
+        assertEquals(Arrays.asList("A or B", "A or C"), res);
+
+        res.clear();
+        dispatch(new KeyEvent(KEY_PRESSED, "", "", B, false, false, false, false), im);
+        assertEquals(Arrays.asList("A or B", "B"), res);
+
+        res.clear();
+        dispatch(new KeyEvent(KEY_PRESSED, "", "", C, false, false, false, false), im);
+        assertEquals(Arrays.asList("A or C"), res);
+    }
+
+    @Test
+    public void guardDispatchIsTrackedPerThread() throws InterruptedException {
+        List<String> evaluations = new CopyOnWriteArrayList<>();
+        Guard guard = Guard.of("evaluated", () -> evaluations.add(Thread.currentThread().getName()));
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputMap<KeyEvent> im = process(keyPressed(), e -> {
+            dispatching.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch(InterruptedException ex) {
+                throw new AssertionError(ex);
+            }
+            return PROCEED;
+        });
+
+        Thread other = new Thread(() -> dispatch(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false), im));
+        other.start();
+        try {
+            // another thread's dispatch in progress does not cache this thread's evaluations
+            assertTrue(dispatching.await(5, TimeUnit.SECONDS));
+            guard.getAsBoolean();
+            guard.getAsBoolean();
+            assertEquals(2, evaluations.size());
+        } finally {
+            release.countDown();
+            other.join();
+        }
+    }
+
+    @Test
+    public void guardIsEvaluatedOncePerEvent() {
+        IntegerProperty evaluations = new SimpleIntegerProperty(0);
+        BooleanProperty editable = new SimpleBooleanProperty(true);
+        Guard guard = Guard.of("editable", () -> {
+            evaluations.set(evaluations.get() + 1);
+            return editable.get();
+        });
+        StringProperty res = new SimpleStringProperty();
+
+        InputMap<KeyEvent> im = sequence(
+                consumeWhen(keyPressed(A), guard, e -> res.set("A")),
+                when(guard, consume(keyPressed(B), e -> res.set("B"))),
+                consumeUnless(keyPressed(), guard, e -> res.set("read-only")));
+
+        dispatch(new KeyEvent(KEY_PRESSED, "", "", C, false, false, false, false), im);
+        assertNull(res.get());
+        assertEquals(1, evaluations.get());
+
+        editable.set(false);
+        KeyEvent bPressed = new KeyEvent(KEY_PRESSED, "", "", B, false, false, false, false);
+        dispatch(bPressed, im);
+        assertEquals("read-only", res.get());
+        assertEquals(2, evaluations.get());
+
+        // the result is only reused within a dispatch, also when the same event is dispatched again
+        editable.set(true);
+        dispatch(bPressed, im);
+        assertEquals("B", res.get());
+        assertEquals(3, evaluations.get());
+
+        // outside of a dispatch, the condition is evaluated on every call
+        guard.getAsBoolean();
+        guard.negate().getAsBoolean();
+        assertEquals(5, evaluations.get());
+    }
+
+    @Test
+    public void inputMonitorTest() {
+        List<String> log = new ArrayList<>();
+        InputMonitor monitor = new InputMonitor() {
+            @Override
+            public void handlerStarted(Event event, EventPattern<?, ?> pattern) {
+                log.add("started");
+            }
+
+            @Override
+            public void handlerFinished(Event event, EventPattern<?, ?> pattern, InputHandler.Result result, long nanos) {
+                log.add("finished " + result);
+            }
+
+            @Override
+            public void handlerFailed(Event event, EventPattern<?, ?> pattern, Throwable exception) {
+                log.add("failed " + exception.getClass().getSimpleName());
+            }
+
+            @Override
+            public void inputMapInstalled(Node node, InputMap<?> inputMap, int handlerCount, long nanos) {
+                log.add("installed " + handlerCount);
+            }
+
+            @Override
+            public void inputMapUninstalled(Node node, InputMap<?> inputMap, int handlerCount, long nanos) {
+                log.add("uninstalled " + handlerCount);
+            }
+        };
+
+        InputMap<KeyEvent> im = consume(keyPressed(A));
+        KeyEvent aPressed = new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false);
+        KeyEvent bPressed = new KeyEvent(KEY_PRESSED, "", "", B, false, false, false, false);
+        Node node = new Region();
+
+        Nodes.addInputMonitor(monitor);
+        try {
+            Nodes.addInputMap(node, im);
+            dispatch(aPressed, node);
+            dispatch(bPressed, node); // does not match, not reported
+            Nodes.removeInputMap(node, im);
+            try {
+                dispatch(bPressed.copyFor(null, null), consume(keyPressed(B), e -> { throw new IllegalStateException(); }));
+                fail("exception expected");
+            } catch(IllegalStateException e) {
+                // expected, and reported
+            }
+            dispatch(aPressed.copyFor(null, null), im);
+        } finally {
+            Nodes.removeInputMonitor(monitor);
+        }
+        dispatch(aPressed.copyFor(null, null), im);
+
+        assertEquals(Arrays.asList("installed 1", "started", "finished CONSUME", "uninstalled 0",
+                "started", "failed IllegalStateException", "started", "finished CONSUME"), log);
+    }
+
+    @Test
+    public void watchdogTest() throws InterruptedException {
+        List<SlowHandlerReport> reports = new CopyOnWriteArrayList<>();
+        InputMap<KeyEvent> im = sequence(
+                consume(keyPressed(A), e -> sleep(300)),
+                consume(keyPressed(B)),
+                consume(keyPressed(C), e -> { throw new IllegalStateException(); }));
+
+        Nodes.enableWatchdog(Duration.millis(50), reports::add);
+        try {
+            // a fast handler is not reported
+            runOnFxThread(() -> dispatch(new KeyEvent(KEY_PRESSED, "", "", B, false, false, false, false), im));
+            Thread.sleep(200);
+            assertTrue(reports.isEmpty());
+
+            // a slow one is, with the sampled stack of the application thread
+            runOnFxThread(() -> dispatch(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false), im));
+            assertEquals(1, reports.size());
+            assertEquals(keyPressed(A), reports.get(0).getPattern());
+            assertTrue(reports.get(0).getElapsedNanos() > TimeUnit.MILLISECONDS.toNanos(50));
+            assertTrue(reports.get(0).getStackTrace().length > 0);
+
+            // a handler that throws does not prevent later reports
+            runOnFxThread(() -> {
+                try {
+                    dispatch(new KeyEvent(KEY_PRESSED, "", "", C, false, false, false, false), im);
+                    fail("exception expected");
+                } catch(IllegalStateException e) {
+                    // expected
+                }
+            });
+            runOnFxThread(() -> dispatch(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false), im));
+            assertEquals(2, reports.size());
+        } finally {
+            Nodes.disableWatchdog();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch(InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void runOnFxThread(Runnable action) {
+        FutureTask<Void> task = new FutureTask<>(action, null);
+        Platform.runLater(task);
+        get(task);
+    }
+
+    @Test
+    public void inputEventRecorderTest() {
+        InputEventRecorder recorder = new InputEventRecorder(2);
+        StringProperty dumped = new SimpleStringProperty();
+        recorder.setOnHandlerFailure(dumped::set);
+
+        InputMap<KeyEvent> im = sequence(
+                process(keyPressed(A), e -> PROCEED),
+                consume(keyPressed(B), e -> { throw new IllegalStateException(); }),
+                consume(keyPressed()));
+
+        Nodes.addInputMonitor(recorder);
+        try {
+            dispatch(new KeyEvent(KEY_PRESSED, "", "", A, true, false, false, false), im);
+            dispatch(new KeyEvent(KEY_PRESSED, "", "", C, false, false, false, false), im);
+            try {
+                dispatch(new KeyEvent(KEY_PRESSED, "", "", B, false, false, false, false), im);
+                fail("exception expected");
+            } catch(IllegalStateException e) {
+                // expected
+            }
+        } finally {
+            Nodes.removeInputMonitor(recorder);
+        }
+
+        // capacity is 2, so only the last two entries are kept
+        String[] lines = dumped.get().split("\n");
+        assertEquals(2, lines.length);
+        assertThat(lines[0], containsString("code=C"));
+        assertThat(lines[0], containsString("result=CONSUME"));
+        assertThat(lines[1], containsString("code=B"));
+        assertThat(lines[1], containsString("result=EXCEPTION"));
+    }
+
+    @Test
+    public void inputEventRecorderDumpsConsistentEntriesConcurrently() throws InterruptedException {
+        InputEventRecorder recorder = new InputEventRecorder(8);
+        KeyEvent a = new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false);
+        KeyEvent shiftB = new KeyEvent(KEY_PRESSED, "", "", B, true, false, false, false);
+        AtomicBoolean done = new AtomicBoolean(false);
+        Thread writer = new Thread(() -> {
+            for(int i = 0; i < 200_000; ++i) {
+                recorder.handlerFinished(i % 2 == 0 ? a : shiftB, keyPressed(), PROCEED, 0);
+            }
+            done.set(true);
+        });
+        writer.start();
+        while(!done.get()) {
+            for(String line: recorder.dump().split("\n")) {
+                if(!line.isEmpty()) {
+                    // B is always recorded with Shift, A never is
+                    assertEquals(line, line.contains("code=B"), line.contains("modifiers=Shift"));
+                }
+            }
+        }
+        writer.join();
+    }
+
+    @Test
+    public void keySequenceTest() {
+        List<String> res = new ArrayList<>();
+
+        InputMap<KeyEvent> im = sequence(
+                sequenceOf(KeyChords.forInputMap(Duration.seconds(10))
+                        .bind("Ctrl+K Ctrl+C", e -> res.add("comment"))
+                        .bind("Ctrl+K Ctrl+U", e -> res.add("uncomment"))
+                        .bind("Ctrl+Q", e -> res.add("quit"))),
+                consume(keyPressed(), e -> res.add("other " + e.getCode())));
+
+        KeyEvent ctrl = new KeyEvent(KEY_PRESSED, "", "", CONTROL, false, true, false, false);
+        KeyEvent ctrlK = new KeyEvent(KEY_PRESSED, "", "", K, false, true, false, false);
+        KeyEvent ctrlC = new KeyEvent(KEY_PRESSED, "", "", C, false, true, false, false);
+        KeyEvent ctrlU = new KeyEvent(KEY_PRESSED, "", "", U, false, true, false, false);
+        KeyEvent ctrlQ = new KeyEvent(KEY_PRESSED, "", "", Q, false, true, false, false);
+
+        dispatch(ctrl, im);
+        dispatch(ctrlK, im);
+        dispatch(ctrl, im);
+        dispatch(ctrlC, im);
+        assertEquals(Arrays.asList("other CONTROL", "other CONTROL", "comment"), res);
+
+        res.clear();
+        dispatch(ctrlK, im);
+        dispatch(ctrlU, im);
+        dispatch(ctrlQ, im);
+        dispatch(ctrlC, im);
+        assertEquals(Arrays.asList("uncomment", "quit", "other C"), res);
+
+        // a broken sequence is abandoned and the breaking stroke is matched on its own
+        res.clear();
+        dispatch(ctrlK, im);
+        dispatch(ctrlQ, im);
+        dispatch(ctrlU, im);
+        assertEquals(Arrays.asList("quit", "other U"), res);
+    }
+
+    @Test
+    public void shortcutKeySequenceTest() {
+        List<String> res = new ArrayList<>();
+
+        // the shortcut key is resolved on the first key press, not here
+        InputMap<KeyEvent> im = sequenceOf(KeyChords.forInputMap(Duration.seconds(10))
+                .bind("Shortcut+K Shortcut+C", e -> res.add("comment")));
+
+        boolean ctrl = !new KeyEvent(KEY_PRESSED, "", "", K, false, false, false, true).isShortcutDown();
+        dispatch(new KeyEvent(KEY_PRESSED, "", "", K, false, ctrl, false, !ctrl), im);
+        dispatch(new KeyEvent(KEY_PRESSED, "", "", C, false, ctrl, false, !ctrl), im);
+        assertEquals(Arrays.asList("comment"), res);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keySequencePrefixIsRejectedRightAway() {
+        sequenceOf(KeyChords.forInputMap(Duration.seconds(10))
+                .bind("Shortcut+K", e -> {})
+                .bind("Shortcut+K Shortcut+C", e -> {}));
+    }
+
+    @Test
+    public void consumePerFrameTest() throws InterruptedException {
+        List<String> res = new ArrayList<>();
+
+        // frames are reused, so record what is needed right away
+        InputMap<InputEvent> im = consumePerFrame(
+                EventPattern.<Event, InputEvent>anyOf(keyPressed(), keyTyped(), mouseMoved()),
+                frame -> res.add(frame.getEventCount() + " " + frame.isPressed(A) + " " + frame.isPressed(B)
+                        + " " + frame.getTyped() + " " + frame.getMouseDeltaX() + " " + frame.getMouseX()));
+
+        // events are accumulated until the next pulse
+        assertEquals(Arrays.asList("dispatched", "6 true false ab 2.0 12.0"), afterNextPulse(res, () -> {
+            dispatch(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false), im);
+            dispatch(new KeyEvent(KEY_TYPED, "a", "", UNDEFINED, false, false, false, false), im);
+            dispatch(new KeyEvent(KEY_TYPED, "b", "", UNDEFINED, false, false, false, false), im);
+            dispatch(mouseMovedTo(10, 100), im);
+            dispatch(mouseMovedTo(15, 105), im);
+            dispatch(mouseMovedTo(12, 102), im);
+            res.add("dispatched");
+        }));
+
+        // the movement outside of the node is not a delta
+        assertEquals(Arrays.asList("2 false false  3.0 20.0"), afterNextPulse(res, () -> {
+            dispatch(mouseEvent(MouseEvent.MOUSE_EXITED, 150, 0), im);
+            dispatch(mouseMovedTo(17, 200), im);
+            dispatch(mouseMovedTo(20, 203), im);
+        }));
+    }
+
+    private static MouseEvent mouseMovedTo(double x, double screenX) {
+        return new MouseEvent(MouseEvent.MOUSE_MOVED, x, 0, screenX, 0, MouseButton.NONE, 0,
+                false, false, false, false, false, false, false, false, false, false, null);
+    }
+
+    @Test
+    public void consumeBatchedTest() throws InterruptedException {
+        List<String> res = new ArrayList<>();
+        Region a = new Region();
+        Region b = new Region();
+        InputMap<KeyEvent> im = consumeBatched(keyTyped(), events -> {
+            StringBuilder sb = new StringBuilder();
+            events.forEach(e -> sb.append(e.getCharacter()));
+            res.add(sb.toString());
+        });
+        Nodes.addInputMap(a, im);
+        Nodes.addInputMap(b, im);
+
+        // one batch per node, in the order typed
+        List<String> batches = afterNextPulse(res, () -> {
+            for(String c: Arrays.asList("x", "y", "1", "z")) {
+                KeyEvent e = new KeyEvent(KEY_TYPED, c, "", UNDEFINED, false, false, false, false);
+                (c.equals("1") ? b : a).fireEvent(e);
+            }
+        });
+        Collections.sort(batches);
+        assertEquals(Arrays.asList("1", "xyz"), batches);
+
+        assertEquals(Arrays.asList("q"), afterNextPulse(res, () ->
+                a.fireEvent(new KeyEvent(KEY_TYPED, "q", "", UNDEFINED, false, false, false, false))));
+    }
+
+    @Test
+    public void deferredActionsAreMonitored() throws InterruptedException {
+        List<String> res = new ArrayList<>();
+        InputMonitor monitor = new InputMonitor() {
+            @Override
+            public void handlerFinished(Event event, EventPattern<?, ?> pattern, InputHandler.Result result, long nanos) {
+                res.add("finished " + ((KeyEvent) event).getCode());
+            }
+        };
+        InputMap<KeyEvent> im = coalesce(keyPressed(), e -> res.add("handled " + e.getCode()));
+
+        Nodes.addInputMonitor(monitor);
+        try {
+            // the enqueuing handlers, then the deferred action with the coalesced event
+            assertEquals(Arrays.asList("finished A", "finished B", "handled B", "finished B"), afterNextPulse(res, () -> {
+                dispatch(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false), im);
+                dispatch(new KeyEvent(KEY_PRESSED, "", "", B, false, false, false, false), im);
+            }));
+        } finally {
+            Nodes.removeInputMonitor(monitor);
+        }
+    }
+
+    @Test
+    public void coalesceTest() throws InterruptedException {
+        List<String> res = new ArrayList<>();
+
+        InputMap<KeyEvent> im = coalesce(keyPressed(), e -> res.add(e.getCode().getName()));
+        KeyEvent aPressed = new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false);
+        KeyEvent bPressed = new KeyEvent(KEY_PRESSED, "", "", B, false, false, false, false);
+
+        // events are consumed right away, but not handled before the next pulse
+        assertEquals(Arrays.asList("consumed true", "B"), afterNextPulse(res, () -> {
+            dispatch(aPressed, im);
+            dispatch(bPressed, im);
+            res.add("consumed " + (aPressed.isConsumed() && bPressed.isConsumed()));
+        }));
+    }
+
+    @Test
+    public void debounceTest() {
+        List<KeyCode> res = new CopyOnWriteArrayList<>();
+        InputMap<KeyEvent> im = debounce(keyPressed(), Duration.millis(200), e -> res.add(e.getCode()));
+        Region node = new Region();
+        Nodes.addInputMap(node, im);
+        Consumer<KeyCode> press = code -> runOnFxThread(() ->
+                node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", code, false, false, false, false)));
+
+        // a burst is handled once, with its latest event, after the quiet period
+        press.accept(A);
+        sleep(20);
+        press.accept(B);
+        sleep(20);
+        press.accept(C);
+        assertEquals(Arrays.asList(), res);
+        sleep(600);
+        assertEquals(Arrays.asList(C), res);
+
+        // each event restarts the quiet period
+        press.accept(D);
+        sleep(120);
+        press.accept(E);
+        sleep(120);
+        assertEquals(Arrays.asList(C), res);
+        sleep(600);
+        assertEquals(Arrays.asList(C, E), res);
+    }
+
+    @Test
+    public void debounceIndefinitelyNeverHandles() {
+        List<KeyCode> res = new CopyOnWriteArrayList<>();
+        InputMap<KeyEvent> im = debounce(keyPressed(), Duration.INDEFINITE, e -> res.add(e.getCode()));
+        runOnFxThread(() -> dispatch(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false), im));
+        sleep(300);
+        assertEquals(Arrays.asList(), res);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void throttleRejectsNegativeInterval() {
+        throttle(keyPressed(), Duration.millis(-1), e -> {});
+    }
+
+    @Test
+    public void throttleTest() {
+        List<KeyCode> res = new CopyOnWriteArrayList<>();
+        InputMap<KeyEvent> im = throttle(keyPressed(), Duration.millis(300), e -> res.add(e.getCode()));
+        Region node = new Region();
+        Nodes.addInputMap(node, im);
+        Consumer<KeyCode> press = code -> runOnFxThread(() ->
+                node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", code, false, false, false, false)));
+
+        // the leading event is handled right away
+        press.accept(A);
+        assertEquals(Arrays.asList(A), res);
+
+        // of the events during the interval, the latest is handled when it ends
+        press.accept(B);
+        press.accept(C);
+        assertEquals(Arrays.asList(A), res);
+        sleep(450);
+        assertEquals(Arrays.asList(A, C), res);
+
+        // once an interval passes without events, the next one is leading again
+        sleep(600);
+        press.accept(D);
+        assertEquals(Arrays.asList(A, C, D), res);
+    }
+
+    @Test
+    public void consumeAsyncTest() throws InterruptedException {
+        StringProperty res = new SimpleStringProperty();
+        CountDownLatch done = new CountDownLatch(1);
+
+        InputMap<KeyEvent> im = consumeAsync(
+                keyPressed(),
+                e -> () -> e.getCode().getName() + " computed on " + Thread.currentThread().getName(),
+                (e, r) -> {
+                    res.set(r + ", delivered on FX thread: " + Platform.isFxApplicationThread());
+                    done.countDown();
+                },
+                r -> new Thread(r, "worker").start());
+
+        KeyEvent aPressed = new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false);
+        dispatch(aPressed, im);
+        assertTrue(aPressed.isConsumed());
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("A computed on worker, delivered on FX thread: true", res.get());
+    }
+
+    @Test
+    public void consumeAsyncLatestTest() throws InterruptedException {
+        List<String> delivered = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch firstInterrupted = new CountDownLatch(1);
+
+        InputMap<KeyEvent> im = consumeAsyncLatest(
+                keyPressed(),
+                e -> () -> {
+                    if(e.getCode() == A) {
+                        firstStarted.countDown();
+                        try {
+                            Thread.sleep(5000);
+                        } catch(InterruptedException ex) {
+                            firstInterrupted.countDown();
+                        }
+                    }
+                    return e.getCode().getName();
+                },
+                (e, r) -> {
+                    delivered.add(r);
+                    done.countDown();
+                },
+                r -> new Thread(r).start());
+
+        Platform.runLater(() -> dispatch(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false), im));
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        Platform.runLater(() -> dispatch(new KeyEvent(KEY_PRESSED, "", "", B, false, false, false, false), im));
+
+        assertTrue(firstInterrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        FutureTask<List<String>> result = new FutureTask<>(() -> new ArrayList<>(delivered));
+        Platform.runLater(result);
+        assertEquals(Arrays.asList("B"), get(result));
+    }
+
+    private static <T> T get(FutureTask<T> task) {
+        try {
+            return task.get(5, TimeUnit.SECONDS);
+        } catch(Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
 }
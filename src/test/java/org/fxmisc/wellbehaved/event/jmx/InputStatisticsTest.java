@@ -0,0 +1,65 @@
+package org.fxmisc.wellbehaved.event.jmx;
+
+import static javafx.scene.input.KeyCode.*;
+import static javafx.scene.input.KeyEvent.*;
+import static org.fxmisc.wellbehaved.event.EventPattern.*;
+import static org.fxmisc.wellbehaved.event.InputMap.*;
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Region;
+
+import org.fxmisc.wellbehaved.event.InputHandler.Result;
+import org.fxmisc.wellbehaved.event.Nodes;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class InputStatisticsTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass() {
+        new JFXPanel(); // initialize JavaFX
+    }
+
+    @Test
+    public void countsAreAggregatedByNodeClass() throws Exception {
+        InputStatistics stats = InputStatistics.register();
+        try {
+            stats.reset();
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(InputStatistics.OBJECT_NAME);
+            assertTrue(server.isRegistered(name));
+
+            Region node = new Region();
+            Nodes.addInputMap(node, sequence(
+                    process(keyPressed(A), e -> Result.PROCEED),
+                    consume(keyPressed())));
+            node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false));
+            node.fireEvent(new KeyEvent(KEY_PRESSED, "", "", B, false, false, false, false));
+
+            assertEquals(3L, server.getAttribute(name, "TotalDispatchCount"));
+            List<NodeClassStatistics> classes = stats.getNodeClassStatistics();
+            assertEquals(1, classes.size());
+            NodeClassStatistics regionStats = classes.get(0);
+            assertEquals(Region.class.getName(), regionStats.getNodeClass());
+            assertEquals(3, regionStats.getDispatchCount());
+            assertEquals(2, regionStats.getConsumeCount());
+            assertEquals(1, regionStats.getProceedCount());
+            assertEquals(1, regionStats.getInstallCount());
+
+            stats.reset();
+            assertEquals(0L, server.getAttribute(name, "TotalDispatchCount"));
+            assertTrue(stats.getNodeClassStatistics().isEmpty());
+        } finally {
+            InputStatistics.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(InputStatistics.OBJECT_NAME)));
+    }
+}
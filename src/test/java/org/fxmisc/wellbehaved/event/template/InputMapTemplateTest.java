@@ -12,10 +12,13 @@ import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.embed.swing.JFXPanel;
+import javafx.event.EventType;
 import javafx.scene.Node;
 import javafx.scene.control.TextArea;
 import javafx.scene.input.InputEvent;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Region;
 
 import org.fxmisc.wellbehaved.event.InputHandler;
@@ -25,6 +28,10 @@ import org.fxmisc.wellbehaved.event.Nodes;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 public class InputMapTemplateTest {
 
     @BeforeClass
@@ -225,4 +232,93 @@ public class InputMapTemplateTest {
         assertEquals(4, counter.get());
         assertFalse(right.isConsumed());
     }
+
+    @Test
+    public void consumeAsyncPassesTargetEventAndResult() throws InterruptedException {
+        StringProperty res = new SimpleStringProperty();
+        CountDownLatch done = new CountDownLatch(1);
+
+        InputMapTemplate<Node, KeyEvent> imt = consumeAsync(
+                keyPressed(),
+                (n, e) -> () -> e.getCode().getName().toLowerCase(),
+                (n, e, r) -> {
+                    res.set(n.getId() + " " + e.getCode() + " " + r);
+                    done.countDown();
+                },
+                Runnable::run);
+
+        Node node = new Region();
+        node.setId("node");
+        InputMapTemplate.installFallback(imt, node);
+
+        KeyEvent a = new KeyEvent(KEY_PRESSED, "", "", A, false, false, false, false);
+        InputMapTest.dispatch(a, node);
+        assertTrue(a.isConsumed());
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("node A a", res.get());
+    }
+
+    @Test
+    public void nestedWhenObservableIsResolvedPerTarget() {
+        StringProperty res = new SimpleStringProperty();
+
+        InputMapTemplate<Node, KeyEvent> imt = sequence(
+                whenObservable(Node::focusTraversableProperty, consume(keyPressed(UP), (n, e) -> res.set(n.getId() + " up"))),
+                consume(keyPressed(), (n, e) -> res.set(n.getId() + " other")));
+
+        Node node1 = new Region();
+        node1.setId("node1");
+        Node node2 = new Region();
+        node2.setId("node2");
+        InputMapTemplate.installFallback(imt, node1);
+        InputMapTemplate.installFallback(imt, node2);
+
+        KeyEvent up = new KeyEvent(KEY_PRESSED, "", "", UP, false, false, false, false);
+
+        InputMapTest.dispatch(up, node1);
+        assertEquals("node1 other", res.get());
+
+        node1.setFocusTraversable(true);
+        InputMapTest.dispatch(up, node1);
+        assertEquals("node1 up", res.get());
+        InputMapTest.dispatch(up, node2);
+        assertEquals("node2 other", res.get());
+
+        node1.setFocusTraversable(false);
+        InputMapTest.dispatch(up, node1);
+        assertEquals("node1 other", res.get());
+    }
+
+    @Test
+    public void gesturePatternsAreTrackedOnEachTarget() {
+        StringProperty res = new SimpleStringProperty();
+
+        // the press is consumed before the drag pattern, and the drags are merged into the mouse handlers
+        InputMapTemplate<Node, MouseEvent> imt = sequence(
+                consume(mousePressed()),
+                consume(mouseDragged(MouseButton.PRIMARY, 5), (n, e) -> res.set(n.getId() + " " + e.getScreenX())),
+                consume(eventType(MouseEvent.ANY)));
+
+        Node node1 = new Region();
+        node1.setId("node1");
+        Node node2 = new Region();
+        node2.setId("node2");
+        InputMapTemplate.installFallback(imt, node1);
+        InputMapTemplate.installFallback(imt, node2);
+
+        for(Node node: Arrays.asList(node1, node2)) {
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_PRESSED, 10));
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_DRAGGED, 12));
+            assertNull(res.get());
+            node.fireEvent(mouseEvent(MouseEvent.MOUSE_DRAGGED, 20));
+            assertEquals(node.getId() + " 20.0", res.get());
+            res.set(null);
+        }
+    }
+
+    private static MouseEvent mouseEvent(EventType<MouseEvent> type, double screenX) {
+        return new MouseEvent(type, 0, 0, screenX, 0, MouseButton.PRIMARY, 1,
+                false, false, false, false, true, false, false, false, false, true, null);
+    }
 }